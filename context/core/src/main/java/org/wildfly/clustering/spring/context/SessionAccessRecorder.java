@@ -0,0 +1,65 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.clustering.spring.context;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.wildfly.clustering.session.ImmutableSessionMetaData;
+import org.wildfly.clustering.session.SessionMetaData;
+
+/**
+ * Records the last access of a session, omitting any update whose end time falls within a given granularity of the previously recorded access.
+ * This avoids a metadata write, and its corresponding replication, for sessions accessed at a high frequency, e.g. via polling requests.
+ * Consequently, a session may expire earlier than expected by no more than the configured granularity.
+ * @author Paul Ferraro
+ */
+public class SessionAccessRecorder {
+	private final Duration granularity;
+
+	/**
+	 * Creates a session access recorder using the specified granularity.
+	 * @param granularity the duration within which a subsequent access need not be recorded
+	 */
+	public SessionAccessRecorder(Duration granularity) {
+		this.granularity = granularity;
+	}
+
+	/**
+	 * Records the access of a session, if necessary.
+	 * @param metaData the meta data of a session
+	 * @param startTime the time at which the current access started
+	 * @param endTime the time at which the current access ended
+	 */
+	public void record(SessionMetaData metaData, Instant startTime, Instant endTime) {
+		if (this.isRecordRequired(metaData, endTime)) {
+			metaData.setLastAccess(startTime, endTime);
+		}
+	}
+
+	/**
+	 * Indicates whether an access of a session ending at the specified time must be recorded.
+	 * @param metaData the meta data of a session
+	 * @param endTime the time at which the current access ended
+	 * @return true, if the specified access must be recorded, false otherwise.
+	 */
+	public boolean isRecordRequired(ImmutableSessionMetaData metaData, Instant endTime) {
+		if (!this.granularity.isZero()) {
+			Optional<Instant> lastAccessTime = metaData.getLastAccessTime();
+			// The first access of a session must always be recorded
+			if (lastAccessTime.isPresent()) {
+				Duration elapsed = Duration.between(lastAccessTime.get(), endTime);
+				// Never defer an update for so long that the session might expire in the interim
+				Optional<Duration> maxIdle = metaData.getMaxIdle();
+				if ((elapsed.compareTo(this.granularity) < 0) && (maxIdle.isEmpty() || (elapsed.compareTo(maxIdle.get().dividedBy(2)) < 0))) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.clustering.spring.context;
+
+import java.util.function.UnaryOperator;
+
+import org.wildfly.clustering.function.Consumer;
+import org.wildfly.clustering.session.Session;
+import org.wildfly.clustering.session.SessionManager;
+import org.wildfly.clustering.session.SessionMetaData;
+
+/**
+ * Changes the identifier of a session by copying its state to a new session with the new identifier, and invalidating the original session.
+ * The session manager offers no means of changing the key of a session in place, thus all attributes of the original session are read and written to the new session.
+ * The new session retains the creation time, last access, and max idle time of the original session.
+ * @author Paul Ferraro
+ */
+public class SessionIdentifierChanger implements UnaryOperator<Session<Void>> {
+	private final SessionManager<Void> manager;
+	private final String id;
+
+	/**
+	 * Creates an operator that moves the state of a session to the specified identifier.
+	 * @param manager the manager of the session
+	 * @param id the new session identifier
+	 */
+	public SessionIdentifierChanger(SessionManager<Void> manager, String id) {
+		this.manager = manager;
+		this.id = id;
+	}
+
+	@Override
+	public Session<Void> apply(Session<Void> currentSession) {
+		SessionMetaData currentMetaData = currentSession.getMetaData();
+		Session<Void> newSession = this.manager.createSessionAsync(this.id, currentMetaData.getCreationTime()).toCompletableFuture().join();
+		try {
+			newSession.getAttributes().putAll(currentSession.getAttributes());
+			SessionMetaData newMetaData = newSession.getMetaData();
+			currentMetaData.getMaxIdle().ifPresent(newMetaData::setMaxIdle);
+			currentMetaData.getLastAccess().ifPresent(newMetaData::setLastAccess);
+			currentSession.invalidate();
+			return newSession;
+		} catch (RuntimeException | Error e) {
+			newSession.invalidate();
+			throw e;
+		} finally {
+			Consumer.close().accept(newSession.isValid() ? currentSession : newSession);
+		}
+	}
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.clustering.spring.context;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.wildfly.clustering.session.Session;
+import org.wildfly.clustering.session.SessionManager;
+import org.wildfly.clustering.session.SessionMetaData;
+
+/**
+ * Shares a single open session among concurrent requests for the same session on this node.
+ * Each lookup returns a distinct handle to a shared session, the closing of which releases its reference.
+ * The shared session is closed, and thus written, only once its last handle is closed.
+ * Consequently, concurrent requests for the same session do not serialize on the lock of that session.
+ * <p>
+ * Sharing a session forfeits per-request isolation: concurrent requests observe each other's modifications to the session as they are made, rather than once the modifying request completes,
+ * and, once a request invalidates the shared session, any concurrent request sharing that session observes an invalid session for the remainder of its processing.
+ * Access to a shared session, i.e. to its attributes and meta data, is serialized across its handles, though compound operations spanning multiple invocations are not atomic.
+ * <p>
+ * To ensure that a shared session is eventually written, the window during which a lookup may join a shared session is bounded, both by time and by number of lookups.
+ * Once either bound is reached, subsequent lookups of that session await its lock, which is released once the requests sharing that session complete.
+ * @author Paul Ferraro
+ */
+public class SharedSessionRegistry {
+	/** The default maximum duration, since its first lookup, during which a lookup may join a shared session. */
+	public static final Duration DEFAULT_MAX_SHARING_DURATION = Duration.ofSeconds(1);
+	/** The default maximum number of lookups that may share a session. */
+	public static final int DEFAULT_MAX_SHARES = 16;
+
+	private final Map<String, SharedSession> sessions = new ConcurrentHashMap<>();
+	private final AtomicLong sharedCount = new AtomicLong(0L);
+	private final SessionManager<Void> manager;
+	private final long maxSharingNanos;
+	private final int maxShares;
+
+	/**
+	 * Creates a shared session registry for the specified session manager, using the default sharing bounds.
+	 * @param manager a session manager
+	 */
+	public SharedSessionRegistry(SessionManager<Void> manager) {
+		this(manager, DEFAULT_MAX_SHARING_DURATION, DEFAULT_MAX_SHARES);
+	}
+
+	/**
+	 * Creates a shared session registry for the specified session manager.
+	 * @param manager a session manager
+	 * @param maxSharingDuration the maximum duration, since its first lookup, during which a lookup may join a shared session
+	 * @param maxShares the maximum number of lookups that may share a session
+	 */
+	public SharedSessionRegistry(SessionManager<Void> manager, Duration maxSharingDuration, int maxShares) {
+		this.manager = manager;
+		this.maxSharingNanos = maxSharingDuration.toNanos();
+		this.maxShares = maxShares;
+	}
+
+	/**
+	 * Returns a handle to the session with the specified identifier, sharing a session already opened by a concurrent request, if one exists and may still be joined.
+	 * The caller is responsible for closing the returned handle.
+	 * @param id a session identifier
+	 * @return a stage that completes with a handle to the requested session, or null, if no such session exists
+	 */
+	public CompletionStage<Session<Void>> findSessionAsync(String id) {
+		AtomicBoolean joined = new AtomicBoolean(false);
+		SharedSession shared = this.sessions.compute(id, (key, existing) -> {
+			if ((existing != null) && existing.join(this.maxSharingNanos, this.maxShares)) {
+				joined.setPlain(true);
+				return existing;
+			}
+			// Any existing session may no longer be joined, and will be closed once released by the requests currently sharing it
+			// Thus, the lookup of the new shared session awaits the lock of that session
+			return new SharedSession(key, this.manager.findSessionAsync(key));
+		});
+		if (joined.getPlain()) {
+			this.sharedCount.incrementAndGet();
+		}
+		return shared.session.handle((session, exception) -> {
+			if ((session == null) || (exception != null)) {
+				this.release(shared);
+				if (exception != null) {
+					throw (exception instanceof CompletionException completionException) ? completionException : new CompletionException(exception);
+				}
+				return null;
+			}
+			return new SessionHandle(shared, session, () -> this.release(shared));
+		});
+	}
+
+	private void release(SharedSession shared) {
+		if (shared.references.decrementAndGet() == 0) {
+			// Session can no longer be joined
+			this.sessions.remove(shared.id, shared);
+			// Session stage is already complete
+			shared.session.thenAccept(session -> {
+				if (session != null) {
+					synchronized (shared) {
+						session.close();
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * Returns the number of sessions currently open via this registry that may still be joined.
+	 * @return the number of open sessions
+	 */
+	public int getOpenCount() {
+		return this.sessions.size();
+	}
+
+	/**
+	 * Returns the number of lookups that shared a session already opened by a concurrent request.
+	 * @return the number of shared lookups
+	 */
+	public long getSharedCount() {
+		return this.sharedCount.get();
+	}
+
+	private static class SharedSession {
+		final String id;
+		final CompletionStage<Session<Void>> session;
+		final AtomicInteger references = new AtomicInteger(1);
+		final long startTime = System.nanoTime();
+		// Total number of lookups that referenced this session
+		int shares = 1;
+		// Lazily created, thread-safe views of the shared session, shared by all handles
+		final AtomicReference<Map<String, Object>> attributes = new AtomicReference<>();
+		final AtomicReference<SessionMetaData> metaData = new AtomicReference<>();
+
+		SharedSession(String id, CompletionStage<Session<Void>> session) {
+			this.id = id;
+			this.session = session;
+		}
+
+		/**
+		 * Adds a reference to this session, if permitted by the specified bounds.
+		 * Only invoked while computing the mapping of this session, and thus never invoked concurrently.
+		 */
+		boolean join(long maxSharingNanos, int maxShares) {
+			if ((this.shares >= maxShares) || (System.nanoTime() - this.startTime >= maxSharingNanos)) {
+				return false;
+			}
+			// Session may only be joined while referenced
+			if (this.references.getAndUpdate(references -> (references > 0) ? references + 1 : references) == 0) {
+				return false;
+			}
+			this.shares += 1;
+			return true;
+		}
+	}
+
+	private static class SessionHandle implements Session<Void> {
+		private final SharedSession shared;
+		private final Session<Void> session;
+		private final AtomicBoolean closed = new AtomicBoolean(false);
+		private final Runnable releaseTask;
+
+		SessionHandle(SharedSession shared, Session<Void> session, Runnable releaseTask) {
+			this.shared = shared;
+			this.session = session;
+			this.releaseTask = releaseTask;
+		}
+
+		@Override
+		public String getId() {
+			synchronized (this.shared) {
+				return this.session.getId();
+			}
+		}
+
+		@Override
+		public boolean isValid() {
+			if (this.closed.get()) {
+				return false;
+			}
+			synchronized (this.shared) {
+				return this.session.isValid();
+			}
+		}
+
+		@Override
+		public SessionMetaData getMetaData() {
+			SessionMetaData metaData = this.shared.metaData.get();
+			if (metaData == null) {
+				SessionMetaData sharedMetaData;
+				synchronized (this.shared) {
+					sharedMetaData = this.session.getMetaData();
+				}
+				this.shared.metaData.compareAndSet(null, new SynchronizedSessionMetaData(sharedMetaData, this.shared));
+				metaData = this.shared.metaData.get();
+			}
+			return metaData;
+		}
+
+		@Override
+		public Map<String, Object> getAttributes() {
+			Map<String, Object> attributes = this.shared.attributes.get();
+			if (attributes == null) {
+				Map<String, Object> sharedAttributes;
+				synchronized (this.shared) {
+					sharedAttributes = this.session.getAttributes();
+				}
+				this.shared.attributes.compareAndSet(null, new SynchronizedMap<>(sharedAttributes, this.shared));
+				attributes = this.shared.attributes.get();
+			}
+			return attributes;
+		}
+
+		@Override
+		public Void getContext() {
+			return this.session.getContext();
+		}
+
+		@Override
+		public void invalidate() {
+			synchronized (this.shared) {
+				this.session.invalidate();
+			}
+		}
+
+		@Override
+		public void close() {
+			// Ensure each handle releases its reference only once
+			if (this.closed.compareAndSet(false, true)) {
+				this.releaseTask.run();
+			}
+		}
+	}
+
+	/**
+	 * Session meta data whose operations are serialized via the monitor of its shared session.
+	 */
+	private static class SynchronizedSessionMetaData implements SessionMetaData {
+		private final SessionMetaData metaData;
+		private final Object monitor;
+
+		SynchronizedSessionMetaData(SessionMetaData metaData, Object monitor) {
+			this.metaData = metaData;
+			this.monitor = monitor;
+		}
+
+		@Override
+		public Instant getCreationTime() {
+			synchronized (this.monitor) {
+				return this.metaData.getCreationTime();
+			}
+		}
+
+		@Override
+		public Optional<Instant> getLastAccessStartTime() {
+			synchronized (this.monitor) {
+				return this.metaData.getLastAccessStartTime();
+			}
+		}
+
+		@Override
+		public Optional<Instant> getLastAccessEndTime() {
+			synchronized (this.monitor) {
+				return this.metaData.getLastAccessEndTime();
+			}
+		}
+
+		@Override
+		public Optional<Duration> getMaxIdle() {
+			synchronized (this.monitor) {
+				return this.metaData.getMaxIdle();
+			}
+		}
+
+		@Override
+		public void setLastAccess(Instant startTime, Instant endTime) {
+			synchronized (this.monitor) {
+				this.metaData.setLastAccess(startTime, endTime);
+			}
+		}
+
+		@Override
+		public void setMaxIdle(Duration maxIdle) {
+			synchronized (this.monitor) {
+				this.metaData.setMaxIdle(maxIdle);
+			}
+		}
+	}
+}
@@ -0,0 +1,374 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.clustering.spring.context;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A map whose operations are serialized via a given monitor, shared with other objects, unlike {@link java.util.Collections#synchronizedMap(Map)}.
+ * Its collection views are serialized via the same monitor.
+ * As with {@link java.util.Collections#synchronizedMap(Map)}, iteration over a collection view must be manually synchronized via the monitor.
+ * @author Paul Ferraro
+ * @param <K> the map key type
+ * @param <V> the map value type
+ */
+class SynchronizedMap<K, V> implements Map<K, V> {
+	private final Map<K, V> map;
+	private final Object monitor;
+
+	SynchronizedMap(Map<K, V> map, Object monitor) {
+		this.map = map;
+		this.monitor = monitor;
+	}
+
+	@Override
+	public int size() {
+		synchronized (this.monitor) {
+			return this.map.size();
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		synchronized (this.monitor) {
+			return this.map.isEmpty();
+		}
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		synchronized (this.monitor) {
+			return this.map.containsKey(key);
+		}
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		synchronized (this.monitor) {
+			return this.map.containsValue(value);
+		}
+	}
+
+	@Override
+	public V get(Object key) {
+		synchronized (this.monitor) {
+			return this.map.get(key);
+		}
+	}
+
+	@Override
+	public V getOrDefault(Object key, V defaultValue) {
+		synchronized (this.monitor) {
+			return this.map.getOrDefault(key, defaultValue);
+		}
+	}
+
+	@Override
+	public V put(K key, V value) {
+		synchronized (this.monitor) {
+			return this.map.put(key, value);
+		}
+	}
+
+	@Override
+	public V remove(Object key) {
+		synchronized (this.monitor) {
+			return this.map.remove(key);
+		}
+	}
+
+	@Override
+	public void putAll(Map<? extends K, ? extends V> map) {
+		synchronized (this.monitor) {
+			this.map.putAll(map);
+		}
+	}
+
+	@Override
+	public void clear() {
+		synchronized (this.monitor) {
+			this.map.clear();
+		}
+	}
+
+	@Override
+	public Set<K> keySet() {
+		synchronized (this.monitor) {
+			return new SynchronizedSet<>(this.map.keySet(), this.monitor);
+		}
+	}
+
+	@Override
+	public Collection<V> values() {
+		synchronized (this.monitor) {
+			return new SynchronizedCollection<>(this.map.values(), this.monitor);
+		}
+	}
+
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		synchronized (this.monitor) {
+			return new SynchronizedSet<>(this.map.entrySet(), this.monitor);
+		}
+	}
+
+	@Override
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		synchronized (this.monitor) {
+			this.map.forEach(action);
+		}
+	}
+
+	@Override
+	public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+		synchronized (this.monitor) {
+			this.map.replaceAll(function);
+		}
+	}
+
+	@Override
+	public V putIfAbsent(K key, V value) {
+		synchronized (this.monitor) {
+			return this.map.putIfAbsent(key, value);
+		}
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		synchronized (this.monitor) {
+			return this.map.remove(key, value);
+		}
+	}
+
+	@Override
+	public boolean replace(K key, V oldValue, V newValue) {
+		synchronized (this.monitor) {
+			return this.map.replace(key, oldValue, newValue);
+		}
+	}
+
+	@Override
+	public V replace(K key, V value) {
+		synchronized (this.monitor) {
+			return this.map.replace(key, value);
+		}
+	}
+
+	@Override
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+		synchronized (this.monitor) {
+			return this.map.computeIfAbsent(key, function);
+		}
+	}
+
+	@Override
+	public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> function) {
+		synchronized (this.monitor) {
+			return this.map.computeIfPresent(key, function);
+		}
+	}
+
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> function) {
+		synchronized (this.monitor) {
+			return this.map.compute(key, function);
+		}
+	}
+
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> function) {
+		synchronized (this.monitor) {
+			return this.map.merge(key, value, function);
+		}
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (this == object) {
+			return true;
+		}
+		synchronized (this.monitor) {
+			return this.map.equals(object);
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		synchronized (this.monitor) {
+			return this.map.hashCode();
+		}
+	}
+
+	@Override
+	public String toString() {
+		synchronized (this.monitor) {
+			return this.map.toString();
+		}
+	}
+
+	/**
+	 * A collection view whose operations, other than iteration, are serialized via the monitor of its map.
+	 * @param <E> the element type
+	 */
+	static class SynchronizedCollection<E> implements Collection<E> {
+		private final Collection<E> collection;
+		final Object monitor;
+
+		SynchronizedCollection(Collection<E> collection, Object monitor) {
+			this.collection = collection;
+			this.monitor = monitor;
+		}
+
+		@Override
+		public int size() {
+			synchronized (this.monitor) {
+				return this.collection.size();
+			}
+		}
+
+		@Override
+		public boolean isEmpty() {
+			synchronized (this.monitor) {
+				return this.collection.isEmpty();
+			}
+		}
+
+		@Override
+		public boolean contains(Object object) {
+			synchronized (this.monitor) {
+				return this.collection.contains(object);
+			}
+		}
+
+		@Override
+		public Iterator<E> iterator() {
+			// Must be manually synchronized by caller
+			return this.collection.iterator();
+		}
+
+		@Override
+		public Object[] toArray() {
+			synchronized (this.monitor) {
+				return this.collection.toArray();
+			}
+		}
+
+		@Override
+		public <T> T[] toArray(T[] array) {
+			synchronized (this.monitor) {
+				return this.collection.toArray(array);
+			}
+		}
+
+		@Override
+		public boolean add(E element) {
+			synchronized (this.monitor) {
+				return this.collection.add(element);
+			}
+		}
+
+		@Override
+		public boolean remove(Object object) {
+			synchronized (this.monitor) {
+				return this.collection.remove(object);
+			}
+		}
+
+		@Override
+		public boolean containsAll(Collection<?> collection) {
+			synchronized (this.monitor) {
+				return this.collection.containsAll(collection);
+			}
+		}
+
+		@Override
+		public boolean addAll(Collection<? extends E> collection) {
+			synchronized (this.monitor) {
+				return this.collection.addAll(collection);
+			}
+		}
+
+		@Override
+		public boolean removeAll(Collection<?> collection) {
+			synchronized (this.monitor) {
+				return this.collection.removeAll(collection);
+			}
+		}
+
+		@Override
+		public boolean removeIf(Predicate<? super E> filter) {
+			synchronized (this.monitor) {
+				return this.collection.removeIf(filter);
+			}
+		}
+
+		@Override
+		public boolean retainAll(Collection<?> collection) {
+			synchronized (this.monitor) {
+				return this.collection.retainAll(collection);
+			}
+		}
+
+		@Override
+		public void clear() {
+			synchronized (this.monitor) {
+				this.collection.clear();
+			}
+		}
+
+		@Override
+		public void forEach(Consumer<? super E> action) {
+			synchronized (this.monitor) {
+				this.collection.forEach(action);
+			}
+		}
+
+		@Override
+		public String toString() {
+			synchronized (this.monitor) {
+				return this.collection.toString();
+			}
+		}
+	}
+
+	/**
+	 * A set view whose operations, other than iteration, are serialized via the monitor of its map.
+	 * @param <E> the element type
+	 */
+	static class SynchronizedSet<E> extends SynchronizedCollection<E> implements Set<E> {
+		private final Set<E> set;
+
+		SynchronizedSet(Set<E> set, Object monitor) {
+			super(set, monitor);
+			this.set = set;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (this == object) {
+				return true;
+			}
+			synchronized (this.monitor) {
+				return this.set.equals(object);
+			}
+		}
+
+		@Override
+		public int hashCode() {
+			synchronized (this.monitor) {
+				return this.set.hashCode();
+			}
+		}
+	}
+}
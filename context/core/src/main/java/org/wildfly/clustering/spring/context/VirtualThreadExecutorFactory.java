@@ -0,0 +1,70 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.clustering.spring.context;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Factory for creating an executor that runs each task via a new virtual thread.
+ * Virtual threads are resolved reflectively, since they are not available to all supported JDK versions.
+ * @author Paul Ferraro
+ */
+public enum VirtualThreadExecutorFactory implements Supplier<ExecutorService> {
+	/** Singleton instance */
+	INSTANCE;
+
+	private static final MethodHandle FACTORY_HANDLE = findFactory(Executors.class);
+
+	/**
+	 * Resolves the static factory method of a virtual thread per task executor from the specified class.
+	 * @param factoryClass the class declaring the factory method
+	 * @return a handle to the factory method, or null, if the specified class declares no such method, e.g. prior to JDK 21.
+	 */
+	static MethodHandle findFactory(Class<?> factoryClass) {
+		try {
+			return MethodHandles.publicLookup().findStatic(factoryClass, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Creates an executor via the specified factory method handle.
+	 * @param factory a handle to the factory method, or null, if virtual threads are not supported.
+	 * @return a virtual thread per task executor
+	 * @throws IllegalStateException if virtual threads are not supported
+	 */
+	static ExecutorService createExecutor(MethodHandle factory) {
+		if (factory == null) {
+			throw new IllegalStateException(Runtime.version().toString());
+		}
+		try {
+			return (ExecutorService) factory.invoke();
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Indicates whether virtual threads are supported by the current JDK.
+	 * @return true, if virtual threads are supported, false otherwise.
+	 */
+	public boolean isSupported() {
+		return FACTORY_HANDLE != null;
+	}
+
+	@Override
+	public ExecutorService get() {
+		return createExecutor(FACTORY_HANDLE);
+	}
+}
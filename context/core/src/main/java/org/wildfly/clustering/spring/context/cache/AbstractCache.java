@@ -6,7 +6,14 @@
 package org.wildfly.clustering.spring.context.cache;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 import org.infinispan.commons.api.BasicCache;
 import org.jspecify.annotations.Nullable;
@@ -22,6 +29,7 @@ import org.wildfly.clustering.marshalling.MarshalledValue;
 import org.wildfly.clustering.marshalling.MarshalledValueFactory;
 import org.wildfly.clustering.marshalling.MarshalledValueMarshaller;
 import org.wildfly.clustering.marshalling.Marshaller;
+import org.wildfly.clustering.server.immutable.Immutability;
 
 /**
  * Generic Infinispan-based {@link Cache}.
@@ -73,14 +81,49 @@ public abstract class AbstractCache<K, V> implements Cache {
 		 * @return the marshaller for cache values.
 		 */
 		Marshaller<Object, V> getValueMarshaller();
+
+		/**
+		 * Returns the maximum number of deserialized values retained locally, or 0, if deserialized values should not be retained.
+		 * @return the maximum number of deserialized values retained locally
+		 */
+		default int getLocalValueTierSize() {
+			return 0;
+		}
+
+		/**
+		 * Returns the predicate used to determine whether a deserialized value is immutable, and thus may be retained locally.
+		 * @return an immutability predicate
+		 */
+		default Immutability getImmutability() {
+			return Immutability.getDefault();
+		}
+
+		/**
+		 * Returns the maximum duration for which a node may hold the right to load a missing value via {@link Cache#get(Object, java.util.concurrent.Callable)}, if value loading should be single-flight.
+		 * If present, concurrent loads of the same key, whether on this node or on other nodes, await the value loaded by a single caller.
+		 * @return an optional single-flight timeout
+		 */
+		default Optional<Duration> getSingleFlightTimeout() {
+			return Optional.empty();
+		}
 	}
 
+	// Token stored in place of a value while it is loaded by some node
+	private static final String LOADING_MARKER = AbstractCache.class.getName() + ".LOADING";
+	private static final long MIN_LOAD_PAUSE_MILLIS = 10L;
+	private static final long MAX_LOAD_PAUSE_MILLIS = 250L;
+
 	private final Supplier<Batch> batchFactory;
 	private final BasicCache<K, V> cache;
 	private final BasicCache<K, V> readWriteCache;
 	private final BasicCache<K, V> writeOnlyCache;
 	private final Marshaller<Object, K> keyMarshaller;
 	private final Marshaller<Object, V> valueMarshaller;
+	private final LocalValueTier<K, V> localValueTier;
+	private final Optional<Duration> singleFlightTimeout;
+	// Stored form of the loading marker, compared with stored values, such that markers are detected without reading stored values
+	private final V loadingMarker;
+	private final Map<K, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
 
 	/**
 	 * Constructs a cache from the specified configuration
@@ -93,6 +136,39 @@ public abstract class AbstractCache<K, V> implements Cache {
 		this.writeOnlyCache = configuration.getWriteOnlyCache();
 		this.keyMarshaller = configuration.getKeyMarshaller();
 		this.valueMarshaller = configuration.getValueMarshaller();
+		int localValueTierSize = configuration.getLocalValueTierSize();
+		Immutability immutability = configuration.getImmutability();
+		this.localValueTier = (localValueTierSize > 0) ? new LocalValueTier<>(localValueTierSize, immutability) : null;
+		this.singleFlightTimeout = configuration.getSingleFlightTimeout();
+		this.loadingMarker = this.writeValue(LOADING_MARKER);
+	}
+
+	/**
+	 * Returns the local tier of deserialized values, exposing its statistics, if enabled.
+	 * @return an optional local value tier
+	 */
+	public Optional<LocalValueTier<K, V>> getLocalValueTier() {
+		return Optional.ofNullable(this.localValueTier);
+	}
+
+	// Returns the value retained locally for the specified key, if any
+	private Object findRetained(K key) {
+		return (this.localValueTier != null) ? this.localValueTier.get(key) : null;
+	}
+
+	// Returns the version of the local value tier, which must be obtained before reading a stored value
+	private long getVersion() {
+		return (this.localValueTier != null) ? this.localValueTier.getVersion() : 0L;
+	}
+
+	private Object read(K key, V value, long version) {
+		return (this.localValueTier != null) ? this.localValueTier.read(key, value, version, this::read) : this.read(value);
+	}
+
+	private void invalidate(K key) {
+		if (this.localValueTier != null) {
+			this.localValueTier.invalidate(key);
+		}
 	}
 
 	private Object read(V value) {
@@ -119,8 +195,24 @@ public abstract class AbstractCache<K, V> implements Cache {
 		}
 	}
 
-	private ValueWrapper wrap(V value) {
-		return (value != null) ? () -> this.read(value) : null;
+	private ValueWrapper wrap(K key, V value, long version) {
+		if ((value == null) || this.isLoadingMarker(value)) {
+			return null;
+		}
+		Object result = this.read(key, value, version);
+		return () -> result;
+	}
+
+	private boolean isLoadingMarker(V value) {
+		// N.B. Conditional cache operations also rely on the equality of stored values
+		return this.loadingMarker.equals(value);
+	}
+
+	/**
+	 * Releases the resources of this cache, e.g. its cache listeners, once it is no longer used by its cache manager.
+	 */
+	public void close() {
+		// Do nothing
 	}
 
 	@Override
@@ -135,63 +227,200 @@ public abstract class AbstractCache<K, V> implements Cache {
 
 	@Override
 	public @Nullable ValueWrapper get(Object key) {
+		K storedKey = this.writeKey(key);
+		Object retained = this.findRetained(storedKey);
+		if (retained != null) {
+			return () -> retained;
+		}
 		try (Batch batch = this.batchFactory.get()) {
-			V value = this.cache.get(key);
-			return (value != null) ? () -> this.wrap(value) : null;
+			long version = this.getVersion();
+			return this.wrap(storedKey, this.cache.get(storedKey), version);
 		}
 	}
 
 	@Override
 	public <T> @Nullable T get(Object key, @Nullable Class<T> type) {
+		K storedKey = this.writeKey(key);
+		Object retained = this.findRetained(storedKey);
+		if (retained != null) {
+			return type.cast(retained);
+		}
 		try (Batch batch = this.batchFactory.get()) {
-			V value = this.cache.get(this.writeKey(key));
-			return (value != null) ? type.cast(this.read(value)) : null;
+			long version = this.getVersion();
+			V value = this.cache.get(storedKey);
+			return ((value != null) && !this.isLoadingMarker(value)) ? type.cast(this.read(storedKey, value, version)) : null;
 		}
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public <T> @Nullable T get(Object key, java.util.concurrent.Callable<T> valueLoader) {
+		K storedKey = this.writeKey(key);
+		Object retained = this.findRetained(storedKey);
+		if (retained != null) {
+			return (T) retained;
+		}
+		if (this.singleFlightTimeout.isPresent()) {
+			return (T) this.load(key, storedKey, valueLoader, this.singleFlightTimeout.get());
+		}
 		Function<Exception, ValueRetrievalException> handler = exception -> new ValueRetrievalException(key, valueLoader, exception);
 		Supplier<T> valueProvider = Callable.of(valueLoader, Function.identity()).handle(UnaryOperator.<Exception>identity().thenThrow(handler).thenApply(Function.of(null)));
 		try (Batch batch = this.batchFactory.get()) {
-			V value = this.readWriteCache.computeIfAbsent(this.writeKey(key), Function.of(Consumer.of(), valueProvider.thenApply(this::writeValue)));
-			return (value != null) ? (T) this.read(value) : null;
+			long version = this.getVersion();
+			V value = this.readWriteCache.computeIfAbsent(storedKey, Function.of(Consumer.of(), valueProvider.thenApply(this::writeValue)));
+			if ((value != null) && this.isLoadingMarker(value)) {
+				// Value is being loaded by a single-flight node, thus load our value without storing it
+				return valueProvider.get();
+			}
+			return (value != null) ? (T) this.read(storedKey, value, version) : null;
+		}
+	}
+
+	private Object load(Object key, K storedKey, java.util.concurrent.Callable<?> valueLoader, Duration timeout) {
+		// Concurrent loads of the same key on this node await a single load
+		CompletableFuture<Object> load = new CompletableFuture<>();
+		CompletableFuture<Object> existingLoad = this.loads.putIfAbsent(storedKey, load);
+		if (existingLoad != null) {
+			try {
+				return existingLoad.join();
+			} catch (CompletionException e) {
+				throw (e.getCause() instanceof RuntimeException exception) ? exception : e;
+			}
+		}
+		try {
+			Object result = this.awaitOrLoad(key, storedKey, valueLoader, timeout);
+			load.complete(result);
+			return result;
+		} catch (RuntimeException | Error e) {
+			load.completeExceptionally(e);
+			throw e;
+		} finally {
+			this.loads.remove(storedKey, load);
+		}
+	}
+
+	private Object awaitOrLoad(Object key, K storedKey, java.util.concurrent.Callable<?> valueLoader, Duration timeout) {
+		// N.B. Loading marker must be visible to other nodes immediately, thus cannot be written within a batch
+		long pause = MIN_LOAD_PAUSE_MILLIS;
+		while (true) {
+			long version = this.getVersion();
+			long start = System.nanoTime();
+			// Marker expires if its node fails to complete its load within the timeout
+			V value = this.readWriteCache.putIfAbsent(storedKey, this.loadingMarker, timeout.toMillis(), TimeUnit.MILLISECONDS);
+			if (value == null) {
+				// Our marker cannot expire, and thus cannot be superseded by the marker of another node, until the timeout has elapsed since its write
+				// A marker that expires between this check and a subsequent conditional operation results, at worst, in a redundant load by another node
+				BooleanSupplier owned = () -> System.nanoTime() - start < timeout.toNanos();
+				return this.loadValue(key, storedKey, owned, valueLoader);
+			}
+			if (!this.isLoadingMarker(value)) {
+				return this.read(storedKey, value, version);
+			}
+			// Await value loaded by some other node, or the expiration of its marker
+			try {
+				Thread.sleep(pause);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ValueRetrievalException(key, valueLoader, e);
+			}
+			pause = Math.min(pause * 2, MAX_LOAD_PAUSE_MILLIS);
+		}
+	}
+
+	private Object loadValue(Object key, K storedKey, BooleanSupplier owned, java.util.concurrent.Callable<?> valueLoader) {
+		boolean stored = false;
+		try {
+			Object result = valueLoader.call();
+			if (result != null) {
+				V value = this.writeValue(result);
+				this.invalidate(storedKey);
+				// If our marker may have expired, only store our value if no other value, nor the marker of another node, was stored since
+				if (!owned.getAsBoolean() || !this.readWriteCache.replace(storedKey, this.loadingMarker, value)) {
+					this.readWriteCache.putIfAbsent(storedKey, value);
+				}
+				stored = true;
+			}
+			return result;
+		} catch (Exception e) {
+			throw new ValueRetrievalException(key, valueLoader, e);
+		} finally {
+			// Release our marker, unless it may have expired, in which case the current marker may belong to another node
+			if (!stored && owned.getAsBoolean()) {
+				this.readWriteCache.remove(storedKey, this.loadingMarker);
+			}
 		}
 	}
 
 	@Override
 	public void put(Object key, @Nullable Object value) {
 		try (Batch batch = this.batchFactory.get()) {
-			this.writeOnlyCache.put(this.writeKey(key), this.writeValue(value));
+			K storedKey = this.writeKey(key);
+			this.invalidate(storedKey);
+			this.writeOnlyCache.put(storedKey, this.writeValue(value));
 		}
 	}
 
 	@Override
 	public @Nullable ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
 		try (Batch batch = this.batchFactory.get()) {
-			V result = this.readWriteCache.putIfAbsent(this.writeKey(key), this.writeValue(value));
-			return (result != null) ? () -> this.read(result) : null;
+			K storedKey = this.writeKey(key);
+			V storedValue = this.writeValue(value);
+			while (true) {
+				long version = this.getVersion();
+				V existing = this.readWriteCache.putIfAbsent(storedKey, storedValue);
+				if (existing == null) {
+					return null;
+				}
+				if (!this.isLoadingMarker(existing)) {
+					return this.wrap(storedKey, existing, version);
+				}
+				// Key has no value, only the marker of an in-flight load, which our value supersedes
+				if (this.readWriteCache.replace(storedKey, existing, storedValue)) {
+					return null;
+				}
+			}
 		}
 	}
 
 	@Override
 	public void evict(Object key) {
-		try (Batch batch = this.batchFactory.get()) {
-			this.writeOnlyCache.remove(this.writeKey(key));
+		if (this.singleFlightTimeout.isPresent()) {
+			this.evictIfPresent(key);
+		} else {
+			try (Batch batch = this.batchFactory.get()) {
+				K storedKey = this.writeKey(key);
+				this.invalidate(storedKey);
+				this.writeOnlyCache.remove(storedKey);
+			}
 		}
 	}
 
 	@Override
 	public boolean evictIfPresent(Object key) {
 		try (Batch batch = this.batchFactory.get()) {
-			return this.readWriteCache.remove(this.writeKey(key)) != null;
+			K storedKey = this.writeKey(key);
+			this.invalidate(storedKey);
+			if (this.singleFlightTimeout.isEmpty()) {
+				return this.readWriteCache.remove(storedKey) != null;
+			}
+			V value = this.readWriteCache.get(storedKey);
+			// Never remove the marker of an in-flight load
+			while ((value != null) && !this.isLoadingMarker(value)) {
+				if (this.readWriteCache.remove(storedKey, value)) {
+					return true;
+				}
+				value = this.readWriteCache.get(storedKey);
+			}
+			return false;
 		}
 	}
 
 	@Override
 	public void clear() {
 		try (Batch batch = this.batchFactory.get()) {
+			if (this.localValueTier != null) {
+				this.localValueTier.clear();
+			}
 			this.cache.clear();
 		}
 	}
@@ -201,7 +430,13 @@ public abstract class AbstractCache<K, V> implements Cache {
 		try (Batch batch = this.batchFactory.get()) {
 			// N.B. WTF is this method?!?
 			// See upstream javadoc for details.
-			return this.cache.getAsync(this.writeKey(key)).thenApply(this::wrap);
+			K storedKey = this.writeKey(key);
+			Object retained = this.findRetained(storedKey);
+			if (retained != null) {
+				return CompletableFuture.<ValueWrapper>completedFuture(() -> retained);
+			}
+			long version = this.getVersion();
+			return this.cache.getAsync(storedKey).thenApply(value -> this.wrap(storedKey, value, version));
 		}
 	}
 }
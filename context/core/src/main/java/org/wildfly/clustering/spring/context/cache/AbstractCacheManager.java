@@ -5,24 +5,42 @@
 
 package org.wildfly.clustering.spring.context.cache;
 
+import java.time.Duration;
 import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 
 import org.infinispan.commons.api.BasicCacheContainer;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.EnvironmentAware;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.core.env.Environment;
 import org.springframework.core.io.ResourceLoader;
 import org.wildfly.clustering.marshalling.ByteBufferMarshaller;
+import org.wildfly.clustering.server.immutable.Immutability;
 
 /**
  * An abstract {@link CacheManager} backed by Infinispan.
+ * Caches are created once per name, sharing a single marshaller, and are recreated only if their underlying cache was stopped.
+ * Caches are closed once replaced, or once this cache manager is destroyed.
  * @author Paul Ferraro
  */
-public abstract class AbstractCacheManager implements CacheManager, EnvironmentAware, ResourceLoaderAware {
+public abstract class AbstractCacheManager implements CacheManager, EnvironmentAware, ResourceLoaderAware, DisposableBean {
+	private static final System.Logger LOGGER = System.getLogger(AbstractCacheManager.class.getPackageName());
+
 	private final BasicCacheContainer container;
 	private final BiFunction<Environment, ResourceLoader, ByteBufferMarshaller> marshallerFactory;
+	private final AtomicReference<ByteBufferMarshaller> marshaller = new AtomicReference<>();
+	private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+	private int localValueTierSize = 0;
+	private Immutability immutability = Immutability.getDefault();
+	private Optional<Duration> singleFlightTimeout = Optional.empty();
 
 	private Environment environment;
 	private ResourceLoader loader;
@@ -37,11 +55,118 @@ public abstract class AbstractCacheManager implements CacheManager, EnvironmentA
 		this.marshallerFactory = marshallerFactory;
 	}
 
+	@Override
+	public @Nullable Cache getCache(String name) {
+		// Spring may call this method per cache operation, so avoid locking in the common case
+		Cache cache = this.caches.get(name);
+		if ((cache != null) && this.isAvailable(cache)) {
+			return cache;
+		}
+		AtomicReference<Cache> replaced = new AtomicReference<>();
+		Cache result = this.caches.compute(name, (key, existing) -> {
+			if (existing != null) {
+				if (this.isAvailable(existing)) {
+					return existing;
+				}
+				replaced.set(existing);
+			}
+			return this.createCache(key);
+		});
+		// Release resources, e.g. listeners, of the replaced cache
+		Optional.ofNullable(replaced.get()).ifPresent(AbstractCacheManager::close);
+		return result;
+	}
+
+	@Override
+	public void destroy() {
+		for (Cache cache : this.caches.values()) {
+			close(cache);
+		}
+		this.caches.clear();
+	}
+
+	private static void close(Cache cache) {
+		if (cache instanceof AbstractCache<?, ?> abstractCache) {
+			try {
+				abstractCache.close();
+			} catch (RuntimeException e) {
+				// e.g. underlying cache was already stopped
+				LOGGER.log(System.Logger.Level.DEBUG, e.getLocalizedMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * Creates the cache with the specified name.
+	 * @param name a cache name
+	 * @return a cache, or null, if no such cache exists
+	 */
+	protected abstract @Nullable Cache createCache(String name);
+
+	/**
+	 * Indicates whether the underlying cache of the specified cache is available for use, i.e. was not stopped.
+	 * @param cache a cache created by this manager
+	 * @return true, if the specified cache is available, false otherwise.
+	 */
+	protected abstract boolean isAvailable(Cache cache);
+
 	@Override
 	public Collection<String> getCacheNames() {
 		return this.container.getCacheNames();
 	}
 
+	/**
+	 * Specifies the maximum number of deserialized immutable values that each cache should retain locally.
+	 * By default, values are deserialized on every read.
+	 * A retained value is returned without reading the cache, and is discarded once notified of a write to its key by another node.
+	 * Consequently, a read may briefly observe a stale value following a write by another node, until notification of that write arrives.
+	 * @param size a maximum number of deserialized values per cache
+	 */
+	public void setLocalValueTierSize(int size) {
+		this.localValueTierSize = size;
+	}
+
+	/**
+	 * Specifies the predicate used to determine whether a deserialized value is immutable, and thus may be retained locally.
+	 * @param immutability an immutability predicate
+	 */
+	public void setImmutability(Immutability immutability) {
+		this.immutability = immutability;
+	}
+
+	/**
+	 * Enables single-flight loading of missing values via {@link Cache#get(Object, java.util.concurrent.Callable)}, e.g. for {@code @Cacheable(sync = true)}.
+	 * Concurrent loads of the same key, whether on this node or on other nodes, then await the value loaded by a single caller, rather than each invoking their loader.
+	 * @param timeout the maximum duration for which a node may hold the right to load a given value, after which another node may assume it
+	 */
+	public void setSingleFlightTimeout(Duration timeout) {
+		this.singleFlightTimeout = Optional.of(timeout);
+	}
+
+	/**
+	 * Returns the single-flight timeout, if single-flight loading was enabled.
+	 * @return an optional single-flight timeout
+	 */
+	protected Optional<Duration> getSingleFlightTimeout() {
+		return this.singleFlightTimeout;
+	}
+
+	/**
+	 * Returns the maximum number of deserialized immutable values that each cache should retain locally.
+	 * @return a maximum number of deserialized values per cache
+	 */
+	protected int getLocalValueTierSize() {
+		return this.localValueTierSize;
+	}
+
+	/**
+	 * Returns the predicate used to determine whether a deserialized value is immutable.
+	 * @return an immutability predicate
+	 */
+	protected Immutability getImmutability() {
+		return this.immutability;
+	}
+
 	@Override
 	public void setResourceLoader(ResourceLoader loader) {
 		this.loader = loader;
@@ -53,10 +178,18 @@ public abstract class AbstractCacheManager implements CacheManager, EnvironmentA
 	}
 
 	/**
-	 * Returns a new cache entry marshaller.
-	 * @return a new cache entry marshaller.
+	 * Returns the cache entry marshaller shared by all caches of this manager, creating it if necessary.
+	 * @return a cache entry marshaller.
 	 */
 	protected ByteBufferMarshaller getMarshaller() {
-		return this.marshallerFactory.apply(this.environment, this.loader);
+		ByteBufferMarshaller marshaller = this.marshaller.get();
+		if (marshaller == null) {
+			marshaller = this.marshallerFactory.apply(this.environment, this.loader);
+			// Discard our marshaller if another thread won the race
+			if (!this.marshaller.compareAndSet(null, marshaller)) {
+				marshaller = this.marshaller.get();
+			}
+		}
+		return marshaller;
 	}
 }
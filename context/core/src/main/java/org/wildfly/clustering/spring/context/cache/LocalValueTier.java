@@ -0,0 +1,185 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.clustering.spring.context.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A bounded, approximately least-recently-used, local tier of deserialized cache values.
+ * Only values deemed immutable are retained, since the same instance may be returned to multiple callers.
+ * A retained value is returned without reading the cache, and thus remains valid until its key is {@link #invalidate(Object) invalidated}, e.g. by a local write, or via a cache listener notified of a write by another node.
+ * To prevent a value read concurrently with the invalidation of its key from being retained, a value is only retained if no invalidation occurred since the {@link #getVersion() version} obtained prior to reading its stored form.
+ * <p>
+ * Reads are lock-free.
+ * Once the number of retained values exceeds the configured size, a single thread evicts the least recently used values, thus the configured size may be briefly exceeded under concurrent reads.
+ * @author Paul Ferraro
+ * @param <K> the stored key type
+ * @param <V> the stored value type
+ */
+public class LocalValueTier<K, V> {
+
+	private final Map<K, RetainedValue> entries = new ConcurrentHashMap<>();
+	private final int size;
+	private final Predicate<Object> immutability;
+	// Incremented by every invalidation
+	private final AtomicLong version = new AtomicLong(0L);
+	private final AtomicBoolean evicting = new AtomicBoolean(false);
+	private final AtomicLong hits = new AtomicLong(0L);
+	private final AtomicLong misses = new AtomicLong(0L);
+
+	/**
+	 * Creates a local value tier.
+	 * @param size the maximum number of retained values
+	 * @param immutability a predicate indicating whether a given value is immutable
+	 */
+	public LocalValueTier(int size, Predicate<Object> immutability) {
+		this.size = size;
+		this.immutability = immutability;
+	}
+
+	/**
+	 * Returns the version of this tier, which must be obtained prior to reading the stored value passed to {@link #read(Object, Object, long, Function)}.
+	 * @return the current version of this tier
+	 */
+	public long getVersion() {
+		return this.version.get();
+	}
+
+	/**
+	 * Returns the value retained for the specified key, if any.
+	 * @param key a stored key
+	 * @return the retained value, or null, if no value is retained for the specified key
+	 */
+	public Object get(K key) {
+		RetainedValue entry = this.entries.get(key);
+		if (entry == null) {
+			this.misses.incrementAndGet();
+			return null;
+		}
+		this.hits.incrementAndGet();
+		entry.access();
+		return entry.value;
+	}
+
+	/**
+	 * Returns the deserialized form of the specified stored value, retaining it if immutable.
+	 * @param key a stored key
+	 * @param value a stored value
+	 * @param version the version of this tier obtained prior to reading the specified stored value
+	 * @param reader a function that deserializes a stored value
+	 * @return the deserialized value
+	 */
+	public Object read(K key, V value, long version, Function<V, Object> reader) {
+		Object result = reader.apply(value);
+		if ((result != null) && (version == this.version.get()) && this.immutability.test(result)) {
+			RetainedValue entry = new RetainedValue(result);
+			this.entries.put(key, entry);
+			// Discard our entry if its key was invalidated concurrently, since the invalidation may have preceded our put
+			if (version != this.version.get()) {
+				this.entries.remove(key, entry);
+			} else if (this.entries.size() > this.size) {
+				this.evict();
+			}
+		}
+		return result;
+	}
+
+	private void evict() {
+		// Only a single thread evicts at a time
+		if (this.evicting.compareAndSet(false, true)) {
+			try {
+				int excess = this.entries.size() - this.size;
+				if (excess > 0) {
+					// Sort by a snapshot of each access time, since access times may change during sorting
+					this.entries.entrySet().stream()
+							.map(entry -> Map.entry(entry, entry.getValue().getLastAccess()))
+							.sorted(Map.Entry.comparingByValue())
+							.limit(excess)
+							.map(Map.Entry::getKey)
+							.forEach(entry -> this.entries.remove(entry.getKey(), entry.getValue()));
+				}
+			} finally {
+				this.evicting.set(false);
+			}
+		}
+	}
+
+	/**
+	 * Discards any retained value for the specified key.
+	 * @param key a stored key
+	 */
+	public void invalidate(K key) {
+		// Increment version prior to removal, see read(...)
+		this.version.incrementAndGet();
+		this.entries.remove(key);
+	}
+
+	/**
+	 * Discards all retained values.
+	 */
+	public void clear() {
+		this.version.incrementAndGet();
+		this.entries.clear();
+	}
+
+	/**
+	 * Returns the number of values currently retained by this tier.
+	 * @return the number of retained values
+	 */
+	public int getSize() {
+		return this.entries.size();
+	}
+
+	/**
+	 * Returns the number of reads that reused a retained value.
+	 * @return the number of hits
+	 */
+	public long getHitCount() {
+		return this.hits.get();
+	}
+
+	/**
+	 * Returns the number of reads that found no retained value.
+	 * @return the number of misses
+	 */
+	public long getMissCount() {
+		return this.misses.get();
+	}
+
+	/**
+	 * Returns the fraction of reads that reused a retained value.
+	 * @return a hit rate between 0 and 1
+	 */
+	public double getHitRate() {
+		long hits = this.hits.get();
+		long total = hits + this.misses.get();
+		return (total > 0) ? (double) hits / total : 0d;
+	}
+
+	private static class RetainedValue {
+		final Object value;
+		private final AtomicLong lastAccess;
+
+		RetainedValue(Object value) {
+			this.value = value;
+			this.lastAccess = new AtomicLong(System.nanoTime());
+		}
+
+		void access() {
+			// Recency need not be exact
+			this.lastAccess.lazySet(System.nanoTime());
+		}
+
+		long getLastAccess() {
+			return this.lastAccess.get();
+		}
+	}
+}
@@ -9,6 +9,7 @@ import java.time.Duration;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -34,6 +35,7 @@ import org.wildfly.clustering.session.SessionManagerFactory;
 import org.wildfly.clustering.session.SessionManagerFactoryConfiguration;
 import org.wildfly.clustering.spring.context.SessionAttributeMarshaller;
 import org.wildfly.clustering.spring.context.SessionManagerBean;
+import org.wildfly.clustering.spring.context.VirtualThreadExecutorFactory;
 
 /**
  * Spring configuration bean for a session manager.
@@ -47,6 +49,8 @@ public abstract class AbstractSessionManagementConfiguration<C> implements Sessi
 	private IdGenerator generator = new JdkIdGenerator();
 	private OptionalInt maxActiveSessions = OptionalInt.empty();
 	private Optional<Duration> idleTimeout = Optional.empty();
+	private Duration accessTimeGranularity = Duration.ZERO;
+	private Optional<Executor> blockingExecutor = Optional.empty();
 	private SessionAttributePersistenceStrategy persistenceStrategy = SessionAttributePersistenceStrategy.COARSE;
 	private BiFunction<Environment, ResourceLoader, ByteBufferMarshaller> marshallerFactory = SessionAttributeMarshaller.JAVA;
 	private Environment environment;
@@ -111,6 +115,22 @@ public abstract class AbstractSessionManagementConfiguration<C> implements Sessi
 		return this.persistenceStrategy;
 	}
 
+	/**
+	 * Returns the duration within which subsequent accesses of a session need not update its last access time.
+	 * @return the duration within which subsequent accesses of a session need not update its last access time.
+	 */
+	public Duration getAccessTimeGranularity() {
+		return this.accessTimeGranularity;
+	}
+
+	/**
+	 * Returns the executor with which to run blocking session operations, if one was configured.
+	 * @return an optional executor for blocking session operations
+	 */
+	public Optional<Executor> getBlockingExecutor() {
+		return this.blockingExecutor;
+	}
+
 	@Override
 	public ByteBufferMarshaller getMarshaller() {
 		return this.marshallerFactory.apply(this.environment, this.loader);
@@ -170,6 +190,37 @@ public abstract class AbstractSessionManagementConfiguration<C> implements Sessi
 		this.idleTimeout = Optional.of(Duration.parse(idleTimeout)).filter(Predicate.not(Duration::isNegative).and(Predicate.not(Duration::isZero)));
 	}
 
+	/**
+	 * Configures the duration of time, expressed in ISO-8601 format, within which subsequent accesses of a session need not update its last access time.
+	 * @param accessTimeGranularity the duration of time, expressed in ISO-8601 format, within which subsequent accesses of a session need not update its last access time.
+	 */
+	@Autowired(required = false)
+	public void setAccessTimeGranularity(String accessTimeGranularity) {
+		this.accessTimeGranularity = Optional.of(Duration.parse(accessTimeGranularity)).filter(Predicate.not(Duration::isNegative)).orElse(Duration.ZERO);
+	}
+
+	/**
+	 * Specifies the executor with which to run blocking session operations, e.g. those awaiting cache locks or remote invocations.
+	 * This also enables the concurrent maintenance of multiple indexes of a servlet session repository, which otherwise runs sequentially on the calling thread.
+	 * The caller remains responsible for the lifecycle of the specified executor.
+	 * @param executor an executor for blocking session operations
+	 */
+	public void setBlockingExecutor(Executor executor) {
+		this.blockingExecutor = Optional.ofNullable(executor);
+	}
+
+	/**
+	 * Specifies whether blocking session operations should run via virtual threads.
+	 * @param virtualThreads indicates whether blocking session operations should run via virtual threads
+	 * @throws IllegalStateException if virtual threads are not supported by the current JDK
+	 */
+	public void setVirtualThreads(boolean virtualThreads) {
+		if (virtualThreads) {
+			// A virtual thread per task executor retains no idle threads, and thus requires no shutdown
+			this.setBlockingExecutor(VirtualThreadExecutorFactory.INSTANCE.get());
+		}
+	}
+
 	@Override
 	public void setImportMetadata(AnnotationMetadata metadata) {
 		AnnotationAttributes attributes = AnnotationAttributes.fromMap(metadata.getAnnotationAttributes(this.annotationClass.getName()));
@@ -177,6 +228,8 @@ public abstract class AbstractSessionManagementConfiguration<C> implements Sessi
 		this.setMaxActiveSessions(manager.getNumber("maxActiveSessions").intValue());
 		this.setMarshaller(manager.getEnum("marshaller"));
 		this.setGranularity(manager.getEnum("granularity"));
+		this.setAccessTimeGranularity(manager.getString("accessTimeGranularity"));
+		this.setVirtualThreads(manager.getBoolean("virtualThreads"));
 		this.accept(attributes);
 	}
 }
@@ -45,4 +45,21 @@ public @interface SessionManager {
 	 * @return the duration of time, expressed in ISO-8601 format, after which an idle session should passivate.
 	 */
 	String idleTimeout() default "PT0S";
+
+	/**
+	 * Defines the duration of time, expressed in ISO-8601 format, within which subsequent requests for a session need not update its last access time.
+	 * A session may consequently expire earlier than expected by no more than this duration.
+	 * Default always updates the last access time of a session.
+	 * @return the duration of time, expressed in ISO-8601 format, within which subsequent requests for a session need not update its last access time.
+	 */
+	String accessTimeGranularity() default "PT0S";
+
+	/**
+	 * Indicates whether blocking session operations, e.g. those awaiting cache locks or remote invocations, should run via virtual threads.
+	 * Requires a JDK that supports virtual threads.
+	 * Default runs blocking session operations of a reactive session manager via a bounded thread pool, and those of a servlet session repository on the calling thread.
+	 * In particular, the maintenance of multiple indexes of a servlet session repository only runs concurrently if enabled.
+	 * @return true, if blocking session operations should run via virtual threads, false otherwise.
+	 */
+	boolean virtualThreads() default false;
 }
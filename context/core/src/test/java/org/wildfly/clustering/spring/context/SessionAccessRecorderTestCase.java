@@ -0,0 +1,103 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.clustering.spring.context;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.wildfly.clustering.session.SessionMetaData;
+
+/**
+ * Unit test for {@link SessionAccessRecorder}.
+ * @author Paul Ferraro
+ */
+public class SessionAccessRecorderTestCase {
+	private final SessionMetaData metaData = mock(SessionMetaData.class);
+	private final Instant lastAccessTime = Instant.now();
+
+	@Test
+	public void zeroGranularity() {
+		SessionAccessRecorder recorder = new SessionAccessRecorder(Duration.ZERO);
+		Instant endTime = this.lastAccessTime.plusMillis(1);
+		doReturn(Optional.of(this.lastAccessTime)).when(this.metaData).getLastAccessTime();
+		doReturn(Optional.of(Duration.ofMinutes(30))).when(this.metaData).getMaxIdle();
+
+		// Every access must be recorded
+		recorder.record(this.metaData, endTime, endTime);
+
+		verify(this.metaData).setLastAccess(endTime, endTime);
+	}
+
+	@Test
+	public void firstAccess() {
+		SessionAccessRecorder recorder = new SessionAccessRecorder(Duration.ofMinutes(1));
+		doReturn(Optional.empty()).when(this.metaData).getLastAccessTime();
+		doReturn(Optional.of(Duration.ofMinutes(30))).when(this.metaData).getMaxIdle();
+
+		// First access of a session must always be recorded
+		recorder.record(this.metaData, this.lastAccessTime, this.lastAccessTime);
+
+		verify(this.metaData).setLastAccess(this.lastAccessTime, this.lastAccessTime);
+	}
+
+	@Test
+	public void withinGranularity() {
+		SessionAccessRecorder recorder = new SessionAccessRecorder(Duration.ofMinutes(1));
+		Instant endTime = this.lastAccessTime.plusSeconds(59);
+		doReturn(Optional.of(this.lastAccessTime)).when(this.metaData).getLastAccessTime();
+		doReturn(Optional.of(Duration.ofMinutes(30))).when(this.metaData).getMaxIdle();
+
+		recorder.record(this.metaData, endTime, endTime);
+
+		verify(this.metaData, never()).setLastAccess(endTime, endTime);
+
+		// Immortal session
+		doReturn(Optional.empty()).when(this.metaData).getMaxIdle();
+
+		recorder.record(this.metaData, endTime, endTime);
+
+		verify(this.metaData, never()).setLastAccess(endTime, endTime);
+	}
+
+	@Test
+	public void beyondGranularity() {
+		SessionAccessRecorder recorder = new SessionAccessRecorder(Duration.ofMinutes(1));
+		Instant endTime = this.lastAccessTime.plusSeconds(60);
+		doReturn(Optional.of(this.lastAccessTime)).when(this.metaData).getLastAccessTime();
+		doReturn(Optional.of(Duration.ofMinutes(30))).when(this.metaData).getMaxIdle();
+
+		recorder.record(this.metaData, endTime, endTime);
+
+		verify(this.metaData).setLastAccess(endTime, endTime);
+	}
+
+	@Test
+	public void beyondHalfMaxIdle() {
+		SessionAccessRecorder recorder = new SessionAccessRecorder(Duration.ofMinutes(1));
+		Instant endTime = this.lastAccessTime.plusSeconds(30);
+		doReturn(Optional.of(this.lastAccessTime)).when(this.metaData).getLastAccessTime();
+		// Deferring the update could allow the session to expire in the interim
+		doReturn(Optional.of(Duration.ofSeconds(60))).when(this.metaData).getMaxIdle();
+
+		recorder.record(this.metaData, endTime, endTime);
+
+		verify(this.metaData).setLastAccess(endTime, endTime);
+
+		// Within half of max idle
+		Instant nextEndTime = this.lastAccessTime.plusSeconds(29);
+
+		recorder.record(this.metaData, nextEndTime, nextEndTime);
+
+		verify(this.metaData, never()).setLastAccess(nextEndTime, nextEndTime);
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.clustering.spring.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.wildfly.clustering.session.Session;
+import org.wildfly.clustering.session.SessionManager;
+import org.wildfly.clustering.session.SessionMetaData;
+
+/**
+ * Unit test for {@link SessionIdentifierChanger}.
+ * @author Paul Ferraro
+ */
+public class SessionIdentifierChangerTestCase {
+	@SuppressWarnings("unchecked")
+	private final SessionManager<Void> manager = mock(SessionManager.class);
+	@SuppressWarnings("unchecked")
+	private final Session<Void> currentSession = mock(Session.class);
+	@SuppressWarnings("unchecked")
+	private final Session<Void> newSession = mock(Session.class);
+	private final SessionMetaData currentMetaData = mock(SessionMetaData.class);
+	private final SessionMetaData newMetaData = mock(SessionMetaData.class);
+	private final Instant creationTime = Instant.now();
+
+	@BeforeEach
+	public void init() {
+		doReturn(this.currentMetaData).when(this.currentSession).getMetaData();
+		doReturn(this.newMetaData).when(this.newSession).getMetaData();
+		doReturn(this.creationTime).when(this.currentMetaData).getCreationTime();
+		doReturn(CompletableFuture.completedFuture(this.newSession)).when(this.manager).createSessionAsync("bar", this.creationTime);
+	}
+
+	@Test
+	public void apply() {
+		Map<String, Object> currentAttributes = Map.of("foo", "bar");
+		Map<String, Object> newAttributes = new HashMap<>();
+		Duration maxIdle = Duration.ofMinutes(30);
+		Map.Entry<Instant, Instant> lastAccess = Map.entry(this.creationTime, this.creationTime.plusSeconds(1));
+		doReturn(currentAttributes).when(this.currentSession).getAttributes();
+		doReturn(newAttributes).when(this.newSession).getAttributes();
+		doReturn(Optional.of(maxIdle)).when(this.currentMetaData).getMaxIdle();
+		doReturn(Optional.of(lastAccess)).when(this.currentMetaData).getLastAccess();
+		doReturn(true).when(this.newSession).isValid();
+
+		Session<Void> result = new SessionIdentifierChanger(this.manager, "bar").apply(this.currentSession);
+
+		assertThat(result).isSameAs(this.newSession);
+		assertThat(newAttributes).isEqualTo(currentAttributes);
+		verify(this.newMetaData).setMaxIdle(maxIdle);
+		verify(this.newMetaData).setLastAccess(lastAccess);
+		verify(this.currentSession).invalidate();
+		verify(this.currentSession).close();
+		verify(this.newSession, never()).close();
+	}
+
+	@Test
+	public void failure() {
+		doThrow(IllegalStateException.class).when(this.currentSession).getAttributes();
+
+		assertThatThrownBy(() -> new SessionIdentifierChanger(this.manager, "bar").apply(this.currentSession)).isInstanceOf(IllegalStateException.class);
+
+		// New session must be discarded, while the current session remains intact
+		verify(this.newSession).invalidate();
+		verify(this.newSession).close();
+		verify(this.currentSession, never()).invalidate();
+		verify(this.currentSession, never()).close();
+	}
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.clustering.spring.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.wildfly.clustering.session.Session;
+import org.wildfly.clustering.session.SessionManager;
+import org.wildfly.clustering.session.SessionMetaData;
+
+/**
+ * Unit test for {@link SharedSessionRegistry}.
+ * @author Paul Ferraro
+ */
+public class SharedSessionRegistryTestCase {
+	@SuppressWarnings("unchecked")
+	private final SessionManager<Void> manager = mock(SessionManager.class);
+	@SuppressWarnings("unchecked")
+	private final Session<Void> session = mock(Session.class);
+	private final SessionMetaData metaData = mock(SessionMetaData.class);
+	// N.B. not thread-safe
+	private final Map<String, Object> attributes = new HashMap<>();
+
+	@BeforeEach
+	public void init() {
+		doReturn("foo").when(this.session).getId();
+		doReturn(true).when(this.session).isValid();
+		doReturn(this.metaData).when(this.session).getMetaData();
+		doReturn(this.attributes).when(this.session).getAttributes();
+		doReturn(CompletableFuture.completedFuture(this.session)).when(this.manager).findSessionAsync("foo");
+	}
+
+	@Test
+	public void share() {
+		SharedSessionRegistry registry = new SharedSessionRegistry(this.manager);
+
+		Session<Void> handle1 = registry.findSessionAsync("foo").toCompletableFuture().join();
+		Session<Void> handle2 = registry.findSessionAsync("foo").toCompletableFuture().join();
+
+		verify(this.manager).findSessionAsync("foo");
+		assertThat(registry.getSharedCount()).isEqualTo(1L);
+
+		handle1.getAttributes().put("bar", "baz");
+		assertThat(handle2.getAttributes()).containsEntry("bar", "baz");
+		assertThat(handle2.getMetaData().getMaxIdle()).isEqualTo(this.metaData.getMaxIdle());
+
+		handle1.close();
+		// Redundant close must not release another reference
+		handle1.close();
+
+		assertThat(handle1.isValid()).isFalse();
+		verify(this.session, never()).close();
+
+		handle2.close();
+
+		verify(this.session).close();
+		assertThat(registry.getOpenCount()).isZero();
+	}
+
+	@Test
+	public void views() {
+		SharedSessionRegistry registry = new SharedSessionRegistry(this.manager);
+
+		Session<Void> handle1 = registry.findSessionAsync("foo").toCompletableFuture().join();
+		Session<Void> handle2 = registry.findSessionAsync("foo").toCompletableFuture().join();
+
+		Map<String, Object> attributes = handle1.getAttributes();
+		attributes.put("bar", "baz");
+		attributes.put("qux", "quux");
+
+		// Collection views must be serialized via the same monitor as their map
+		assertThat(attributes.keySet()).isInstanceOf(SynchronizedMap.SynchronizedSet.class).containsExactlyInAnyOrder("bar", "qux");
+		assertThat(attributes.entrySet()).isInstanceOf(SynchronizedMap.SynchronizedSet.class).containsExactlyInAnyOrder(Map.entry("bar", "baz"), Map.entry("qux", "quux"));
+		assertThat(attributes.values()).isInstanceOf(SynchronizedMap.SynchronizedCollection.class).containsExactlyInAnyOrder("baz", "quux");
+
+		// Mutations via a view must be visible to other handles
+		handle2.getAttributes().keySet().remove("bar");
+		handle2.getAttributes().values().removeIf("quux"::equals);
+
+		assertThat(attributes).isEmpty();
+		assertThat(this.attributes).isEmpty();
+
+		Duration maxIdle = Duration.ofMinutes(1);
+		handle2.getMetaData().setMaxIdle(maxIdle);
+
+		verify(this.metaData).setMaxIdle(maxIdle);
+
+		handle1.close();
+		handle2.close();
+	}
+
+	@Test
+	public void maxShares() {
+		SharedSessionRegistry registry = new SharedSessionRegistry(this.manager, Duration.ofMinutes(1), 2);
+
+		Session<Void> handle1 = registry.findSessionAsync("foo").toCompletableFuture().join();
+		Session<Void> handle2 = registry.findSessionAsync("foo").toCompletableFuture().join();
+
+		verify(this.manager).findSessionAsync("foo");
+
+		// Sharing window is exhausted, thus a subsequent lookup must not join
+		CompletableFuture<Session<Void>> pending = new CompletableFuture<>();
+		doReturn(pending).when(this.manager).findSessionAsync("foo");
+		CompletableFuture<Session<Void>> handle3 = registry.findSessionAsync("foo").toCompletableFuture();
+
+		verify(this.manager, times(2)).findSessionAsync("foo");
+		assertThat(handle3).isNotDone();
+
+		// Shared session must be written once released by its current handles
+		handle1.close();
+		handle2.close();
+
+		verify(this.session).close();
+
+		pending.complete(this.session);
+		handle3.join().close();
+
+		verify(this.session, times(2)).close();
+		assertThat(registry.getOpenCount()).isZero();
+	}
+
+	@Test
+	public void maxSharingDuration() {
+		SharedSessionRegistry registry = new SharedSessionRegistry(this.manager, Duration.ZERO, 16);
+
+		Session<Void> handle1 = registry.findSessionAsync("foo").toCompletableFuture().join();
+		registry.findSessionAsync("foo");
+
+		// Sharing window has elapsed, thus subsequent lookup must not join
+		verify(this.manager, times(2)).findSessionAsync("foo");
+		assertThat(registry.getSharedCount()).isZero();
+
+		handle1.close();
+	}
+
+	@Test
+	public void notFound() {
+		doReturn(CompletableFuture.completedFuture(null)).when(this.manager).findSessionAsync("bar");
+		SharedSessionRegistry registry = new SharedSessionRegistry(this.manager);
+
+		assertThat(registry.findSessionAsync("bar").toCompletableFuture().join()).isNull();
+		assertThat(registry.getOpenCount()).isZero();
+	}
+
+	@Test
+	public void concurrentAccess() throws Exception {
+		int threads = 8;
+		int iterations = 1000;
+		SharedSessionRegistry registry = new SharedSessionRegistry(this.manager, Duration.ofMinutes(1), threads);
+		List<Session<Void>> handles = new ArrayList<>(threads);
+		for (int i = 0; i < threads; ++i) {
+			handles.add(registry.findSessionAsync("foo").toCompletableFuture().join());
+		}
+		verify(this.manager).findSessionAsync("foo");
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> futures = new ArrayList<>(threads);
+			for (int i = 0; i < threads; ++i) {
+				Session<Void> handle = handles.get(i);
+				String prefix = Integer.toString(i);
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (int j = 0; j < iterations; ++j) {
+						handle.getAttributes().put(prefix + "-" + j, j);
+					}
+					handle.close();
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(1, TimeUnit.MINUTES);
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		// Concurrent modifications of the shared session must be serialized
+		assertThat(this.attributes).hasSize(threads * iterations);
+		// Shared session must be closed exactly once
+		verify(this.session).close();
+		assertThat(registry.getOpenCount()).isZero();
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.clustering.spring.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link VirtualThreadExecutorFactory}.
+ * @author Paul Ferraro
+ */
+public class VirtualThreadExecutorFactoryTestCase {
+
+	@Test
+	public void isSupported() {
+		assertThat(VirtualThreadExecutorFactory.INSTANCE.isSupported()).isEqualTo(Runtime.version().feature() >= 21);
+	}
+
+	@Test
+	public void get() throws Throwable {
+		assumeTrue(VirtualThreadExecutorFactory.INSTANCE.isSupported());
+
+		// Thread.isVirtual() is not available to all supported JDK versions
+		MethodHandle isVirtual = MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+
+		ExecutorService executor = VirtualThreadExecutorFactory.INSTANCE.get();
+		try {
+			Thread thread = CompletableFuture.supplyAsync(Thread::currentThread, executor).join();
+
+			assertThat((boolean) isVirtual.invoke(thread)).isTrue();
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void unsupported() {
+		// Emulate a JDK whose Executors class does not yet declare a virtual thread factory method
+		MethodHandle factory = VirtualThreadExecutorFactory.findFactory(Object.class);
+
+		assertThat(factory).isNull();
+		assertThatThrownBy(() -> VirtualThreadExecutorFactory.createExecutor(factory)).isInstanceOf(IllegalStateException.class);
+
+		if (!VirtualThreadExecutorFactory.INSTANCE.isSupported()) {
+			assertThatThrownBy(VirtualThreadExecutorFactory.INSTANCE::get).isInstanceOf(IllegalStateException.class);
+		}
+	}
+
+	@Test
+	public void createExecutor() throws ReflectiveOperationException {
+		// Any handle of the expected type must be invoked
+		MethodHandle factory = MethodHandles.publicLookup().findStatic(Executors.class, "newSingleThreadExecutor", MethodType.methodType(ExecutorService.class));
+
+		ExecutorService executor = VirtualThreadExecutorFactory.createExecutor(factory);
+		try {
+			assertThat(CompletableFuture.supplyAsync(() -> Boolean.TRUE, executor).join()).isTrue();
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
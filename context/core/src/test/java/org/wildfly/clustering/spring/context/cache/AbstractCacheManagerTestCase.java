@@ -0,0 +1,147 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.clustering.spring.context.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.commons.api.BasicCacheContainer;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.wildfly.clustering.marshalling.ByteBufferMarshaller;
+
+/**
+ * Unit test for {@link AbstractCacheManager}.
+ * @author Paul Ferraro
+ */
+public class AbstractCacheManagerTestCase {
+	private final List<AbstractCache<?, ?>> created = new CopyOnWriteArrayList<>();
+	private final AtomicInteger marshallers = new AtomicInteger();
+	private final Set<Cache> unavailable = ConcurrentHashMap.newKeySet();
+
+	private AbstractCacheManager createCacheManager() {
+		return new AbstractCacheManager(mock(BasicCacheContainer.class), (environment, loader) -> {
+			this.marshallers.incrementAndGet();
+			return mock(ByteBufferMarshaller.class);
+		}) {
+			@Override
+			protected Cache createCache(String name) {
+				AbstractCache<?, ?> cache = mock(AbstractCache.class);
+				AbstractCacheManagerTestCase.this.created.add(cache);
+				return cache;
+			}
+
+			@Override
+			protected boolean isAvailable(Cache cache) {
+				return !AbstractCacheManagerTestCase.this.unavailable.contains(cache);
+			}
+		};
+	}
+
+	@Test
+	public void getCache() throws InterruptedException, ExecutionException {
+		AbstractCacheManager manager = this.createCacheManager();
+
+		Cache cache = manager.getCache("foo");
+
+		// Cache must be created once per name
+		assertThat(manager.getCache("foo")).isSameAs(cache);
+		assertThat(manager.getCache("bar")).isNotSameAs(cache);
+		assertThat(this.created).hasSize(2);
+
+		// Concurrent callers must also share a single cache
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Cache>> futures = new ArrayList<>();
+			for (int i = 0; i < 16; ++i) {
+				futures.add(executor.submit(() -> manager.getCache("baz")));
+			}
+			Cache shared = futures.get(0).get();
+			for (Future<Cache> future : futures) {
+				assertThat(future.get()).isSameAs(shared);
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertThat(this.created).hasSize(3);
+	}
+
+	@Test
+	public void getMarshaller() {
+		AbstractCacheManager manager = this.createCacheManager();
+
+		assertThat(this.marshallers).hasValue(0);
+
+		ByteBufferMarshaller marshaller = manager.getMarshaller();
+
+		// Marshaller must be shared by all caches
+		assertThat(manager.getMarshaller()).isSameAs(marshaller);
+		assertThat(this.marshallers).hasValue(1);
+	}
+
+	@Test
+	public void recreateStoppedCache() {
+		AbstractCacheManager manager = this.createCacheManager();
+
+		Cache cache = manager.getCache("foo");
+		Cache other = manager.getCache("bar");
+
+		// Emulate stop of underlying cache
+		this.unavailable.add(cache);
+
+		Cache replacement = manager.getCache("foo");
+
+		assertThat(replacement).isNotNull().isNotSameAs(cache);
+		// Replacement must be memoized
+		assertThat(manager.getCache("foo")).isSameAs(replacement);
+		// Other caches are unaffected
+		assertThat(manager.getCache("bar")).isSameAs(other);
+		assertThat(this.created).hasSize(3);
+	}
+
+	@Test
+	public void closeReplacedCache() {
+		AbstractCacheManager manager = this.createCacheManager();
+
+		Cache cache = manager.getCache("foo");
+		this.unavailable.add(cache);
+
+		Cache replacement = manager.getCache("foo");
+
+		assertThat(replacement).isNotSameAs(cache);
+		// Replaced cache must release its listeners
+		verify((AbstractCache<?, ?>) cache).close();
+		verify((AbstractCache<?, ?>) replacement, never()).close();
+	}
+
+	@Test
+	public void destroy() {
+		AbstractCacheManager manager = this.createCacheManager();
+
+		manager.getCache("foo");
+		manager.getCache("bar");
+
+		manager.destroy();
+
+		assertThat(this.created).hasSize(2);
+		for (AbstractCache<?, ?> cache : this.created) {
+			verify(cache).close();
+		}
+	}
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.clustering.spring.context.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.infinispan.commons.api.BasicCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.wildfly.clustering.cache.batch.Batch;
+import org.wildfly.clustering.function.Supplier;
+import org.wildfly.clustering.marshalling.Marshaller;
+import org.wildfly.clustering.server.immutable.Immutability;
+
+/**
+ * Unit test for {@link AbstractCache}.
+ * @author Paul Ferraro
+ */
+public class AbstractCacheTestCase {
+	@SuppressWarnings("unchecked")
+	private final AbstractCache.Configuration<Object, Object> configuration = mock(AbstractCache.Configuration.class);
+	@SuppressWarnings("unchecked")
+	private final BasicCache<Object, Object> cache = mock(BasicCache.class);
+	private final Map<Object, Object> entries = new ConcurrentHashMap<>();
+	@SuppressWarnings("unchecked")
+	private final Marshaller<Object, Object> marshaller = mock(Marshaller.class);
+
+	@SuppressWarnings("unchecked")
+	@BeforeEach
+	public void init() throws IOException {
+		Supplier<Batch> batchFactory = mock(Supplier.class);
+		doReturn(mock(Batch.class)).when(batchFactory).get();
+		// Marshallers that store keys and values as is
+		doAnswer(invocation -> invocation.getArgument(0)).when(this.marshaller).write(any());
+		doAnswer(invocation -> invocation.getArgument(0)).when(this.marshaller).read(any());
+
+		doReturn(batchFactory).when(this.configuration).getBatchFactory();
+		doReturn(this.cache).when(this.configuration).getCache();
+		doReturn(this.cache).when(this.configuration).getReadWriteCache();
+		doReturn(this.cache).when(this.configuration).getWriteOnlyCache();
+		doReturn(this.marshaller).when(this.configuration).getKeyMarshaller();
+		doReturn(this.marshaller).when(this.configuration).getValueMarshaller();
+		doReturn(Immutability.getDefault()).when(this.configuration).getImmutability();
+		doReturn(Optional.empty()).when(this.configuration).getSingleFlightTimeout();
+
+		// Cache backed by a map
+		doAnswer(invocation -> this.entries.get(invocation.getArgument(0))).when(this.cache).get(any());
+		doAnswer(invocation -> this.entries.put(invocation.getArgument(0), invocation.getArgument(1))).when(this.cache).put(any(), any());
+		doAnswer(invocation -> this.entries.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1))).when(this.cache).putIfAbsent(any(), any());
+		doAnswer(invocation -> this.entries.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1))).when(this.cache).putIfAbsent(any(), any(), anyLong(), any());
+		doAnswer(invocation -> this.entries.replace(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2))).when(this.cache).replace(any(), any(), any());
+		doAnswer(invocation -> this.entries.remove(invocation.getArgument(0), invocation.getArgument(1))).when(this.cache).remove(any(), any());
+		doAnswer(invocation -> this.entries.remove((Object) invocation.getArgument(0))).when(this.cache).remove(any());
+	}
+
+	private AbstractCache<Object, Object> createCache() {
+		return new AbstractCache<>(this.configuration) {
+		};
+	}
+
+	@Test
+	public void localValueTier() {
+		doReturn(16).when(this.configuration).getLocalValueTierSize();
+		this.entries.put("foo", "bar");
+
+		AbstractCache<Object, Object> cache = this.createCache();
+		LocalValueTier<Object, Object> tier = cache.getLocalValueTier().orElseThrow();
+
+		assertThat(cache.get("foo").get()).isEqualTo("bar");
+		// Retained value must be returned without reading the cache
+		assertThat(cache.get("foo", String.class)).isEqualTo("bar");
+		assertThat(cache.get("foo", () -> "baz")).isEqualTo("bar");
+
+		verify(this.cache).get("foo");
+		assertThat(tier.getHitCount()).isEqualTo(2L);
+
+		// Write by another node
+		this.entries.put("foo", "baz");
+		tier.invalidate("foo");
+
+		assertThat(cache.get("foo", String.class)).isEqualTo("baz");
+		verify(this.cache, times(2)).get("foo");
+
+		// Local write must invalidate retained value
+		cache.put("foo", "qux");
+
+		assertThat(cache.get("foo", String.class)).isEqualTo("qux");
+	}
+
+	@Test
+	public void noLocalValueTier() {
+		doReturn(0).when(this.configuration).getLocalValueTierSize();
+		this.entries.put("foo", "bar");
+
+		AbstractCache<Object, Object> cache = this.createCache();
+
+		assertThat(cache.getLocalValueTier()).isEmpty();
+		assertThat(cache.get("foo", String.class)).isEqualTo("bar");
+		assertThat(cache.get("foo", String.class)).isEqualTo("bar");
+
+		verify(this.cache, times(2)).get("foo");
+	}
+
+	@Test
+	public void singleFlight() throws IOException {
+		doReturn(16).when(this.configuration).getLocalValueTierSize();
+		doReturn(Optional.of(Duration.ofMinutes(1))).when(this.configuration).getSingleFlightTimeout();
+
+		AbstractCache<Object, Object> cache = this.createCache();
+		List<Object> markers = new ArrayList<>();
+		Callable<Object> loader = () -> {
+			Object marker = this.entries.get("foo");
+			markers.add(marker);
+			// Concurrent reads must not observe the marker of an in-flight load
+			assertThat(cache.get("foo")).isNull();
+			assertThat(cache.get("foo", Object.class)).isNull();
+			// Marker must never be retained locally
+			assertThat(cache.getLocalValueTier().orElseThrow().getSize()).isZero();
+			return "bar";
+		};
+
+		assertThat(cache.get("foo", loader)).isEqualTo("bar");
+		assertThat(this.entries).containsEntry("foo", "bar");
+
+		cache.evict("foo");
+		cache.get("foo", loader);
+
+		// Markers must be detected via their stored form, and thus never read
+		assertThat(markers).hasSize(2);
+		verify(this.marshaller, never()).read(argThat(markers::contains));
+	}
+
+	@Test
+	public void singleFlightFailure() {
+		doReturn(Optional.of(Duration.ofMinutes(1))).when(this.configuration).getSingleFlightTimeout();
+
+		AbstractCache<Object, Object> cache = this.createCache();
+
+		assertThatThrownBy(() -> cache.get("foo", () -> {
+			throw new Exception();
+		})).isInstanceOf(Cache.ValueRetrievalException.class);
+
+		// Our marker must be released by our failed load
+		assertThat(this.entries).doesNotContainKey("foo");
+	}
+
+	@Test
+	public void singleFlightMarkerExpired() {
+		doReturn(Optional.of(Duration.ofMillis(1))).when(this.configuration).getSingleFlightTimeout();
+
+		AbstractCache<Object, Object> cache = this.createCache();
+		AtomicReference<Object> otherMarker = new AtomicReference<>();
+		Callable<Object> expire = () -> {
+			// Our marker expires, and another node begins its load
+			Thread.sleep(10);
+			otherMarker.set(this.entries.remove("foo"));
+			this.entries.put("foo", otherMarker.get());
+			return null;
+		};
+
+		assertThatThrownBy(() -> cache.get("foo", () -> {
+			expire.call();
+			throw new Exception();
+		})).isInstanceOf(Cache.ValueRetrievalException.class);
+
+		// Marker of another node must not be released by our failed load
+		assertThat(this.entries).containsEntry("foo", otherMarker.get());
+
+		this.entries.clear();
+		assertThat(cache.get("foo", () -> {
+			expire.call();
+			return "bar";
+		})).isEqualTo("bar");
+
+		// Marker of another node must not be replaced by our value
+		assertThat(this.entries).containsEntry("foo", otherMarker.get());
+	}
+
+	@Test
+	public void putIfAbsent() {
+		doReturn(Optional.of(Duration.ofMinutes(1))).when(this.configuration).getSingleFlightTimeout();
+
+		AbstractCache<Object, Object> cache = this.createCache();
+
+		assertThat(cache.get("foo", () -> {
+			// Marker of an in-flight load is not a value
+			assertThat(cache.putIfAbsent("foo", "baz")).isNull();
+			assertThat(this.entries).containsEntry("foo", "baz");
+			return "bar";
+		})).isEqualTo("bar");
+
+		// Loaded value must not replace value stored during load
+		assertThat(this.entries).containsEntry("foo", "baz");
+		assertThat(cache.putIfAbsent("foo", "qux").get()).isEqualTo("baz");
+		assertThat(this.entries).containsEntry("foo", "baz");
+	}
+
+	@Test
+	public void evict() {
+		doReturn(Optional.of(Duration.ofMinutes(1))).when(this.configuration).getSingleFlightTimeout();
+
+		AbstractCache<Object, Object> cache = this.createCache();
+
+		assertThat(cache.get("foo", () -> {
+			Object marker = this.entries.get("foo");
+			// Eviction must not remove the marker of an in-flight load
+			assertThat(cache.evictIfPresent("foo")).isFalse();
+			cache.evict("foo");
+			assertThat(this.entries).containsEntry("foo", marker);
+			return "bar";
+		})).isEqualTo("bar");
+
+		assertThat(this.entries).containsEntry("foo", "bar");
+		assertThat(cache.evictIfPresent("foo")).isTrue();
+		assertThat(this.entries).doesNotContainKey("foo");
+		assertThat(cache.evictIfPresent("foo")).isFalse();
+	}
+
+	@Test
+	public void evictWithoutSingleFlight() {
+		AbstractCache<Object, Object> cache = this.createCache();
+		this.entries.put("foo", "bar");
+
+		cache.evict("foo");
+
+		// Eviction must not read the value
+		verify(this.cache).remove("foo");
+		verify(this.cache, never()).get(any());
+		assertThat(this.entries).doesNotContainKey("foo");
+
+		this.entries.put("foo", "bar");
+
+		assertThat(cache.evictIfPresent("foo")).isTrue();
+		assertThat(cache.evictIfPresent("foo")).isFalse();
+		verify(this.cache, never()).get(any());
+	}
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.clustering.spring.context.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link LocalValueTier}.
+ * @author Paul Ferraro
+ */
+public class LocalValueTierTestCase {
+	private final AtomicInteger reads = new AtomicInteger(0);
+	private final Function<String, Object> reader = value -> {
+		this.reads.incrementAndGet();
+		return value.toUpperCase();
+	};
+
+	@Test
+	public void read() {
+		LocalValueTier<String, String> tier = new LocalValueTier<>(16, value -> true);
+
+		assertThat(tier.get("foo")).isNull();
+		assertThat(tier.read("foo", "bar", tier.getVersion(), this.reader)).isEqualTo("BAR");
+
+		// Retained value must be returned without deserialization
+		assertThat(tier.get("foo")).isEqualTo("BAR");
+		assertThat(this.reads.get()).isEqualTo(1);
+		assertThat(tier.getHitCount()).isEqualTo(1L);
+		assertThat(tier.getMissCount()).isEqualTo(1L);
+		assertThat(tier.getHitRate()).isEqualTo(0.5d);
+
+		tier.invalidate("foo");
+
+		assertThat(tier.get("foo")).isNull();
+		assertThat(tier.getSize()).isZero();
+	}
+
+	@Test
+	public void mutable() {
+		LocalValueTier<String, String> tier = new LocalValueTier<>(16, value -> false);
+
+		assertThat(tier.read("foo", "bar", tier.getVersion(), this.reader)).isEqualTo("BAR");
+
+		// Mutable values must not be retained
+		assertThat(tier.get("foo")).isNull();
+		assertThat(tier.getSize()).isZero();
+	}
+
+	@Test
+	public void concurrentInvalidation() {
+		LocalValueTier<String, String> tier = new LocalValueTier<>(16, value -> true);
+
+		long version = tier.getVersion();
+		// Key is written, and thus invalidated, after its stored value was read
+		tier.invalidate("foo");
+
+		assertThat(tier.read("foo", "bar", version, this.reader)).isEqualTo("BAR");
+		// Potentially stale value must not be retained
+		assertThat(tier.get("foo")).isNull();
+
+		assertThat(tier.read("foo", "baz", tier.getVersion(), this.reader)).isEqualTo("BAZ");
+		assertThat(tier.get("foo")).isEqualTo("BAZ");
+
+		long clearVersion = tier.getVersion();
+		tier.clear();
+
+		assertThat(tier.get("foo")).isNull();
+		tier.read("foo", "qux", clearVersion, this.reader);
+		assertThat(tier.get("foo")).isNull();
+	}
+
+	@Test
+	public void evict() {
+		LocalValueTier<String, String> tier = new LocalValueTier<>(2, value -> true);
+
+		tier.read("a", "a", tier.getVersion(), this.reader);
+		tier.read("b", "b", tier.getVersion(), this.reader);
+		// Access "a", such that "b" is least recently used
+		assertThat(tier.get("a")).isEqualTo("A");
+
+		tier.read("c", "c", tier.getVersion(), this.reader);
+
+		assertThat(tier.getSize()).isEqualTo(2);
+		assertThat(tier.get("b")).isNull();
+		assertThat(tier.get("a")).isEqualTo("A");
+		assertThat(tier.get("c")).isEqualTo("C");
+	}
+
+	@Test
+	public void concurrentAccess() throws Exception {
+		int threads = 8;
+		int iterations = 10000;
+		int size = 32;
+		LocalValueTier<String, String> tier = new LocalValueTier<>(size, value -> true);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> futures = new ArrayList<>(threads);
+			for (int i = 0; i < threads; ++i) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (int j = 0; j < iterations; ++j) {
+						String key = Integer.toString(j % (size * 2));
+						Object value = tier.get(key);
+						if (value == null) {
+							value = tier.read(key, key, tier.getVersion(), this.reader);
+						}
+						assertThat(value).isEqualTo(key);
+						if (j % 100 == 0) {
+							tier.invalidate(key);
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(1, TimeUnit.MINUTES);
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertThat(tier.getHitCount() + tier.getMissCount()).isEqualTo((long) threads * iterations);
+		// Size may only exceed its bound transiently
+		assertThat(tier.getSize()).isLessThanOrEqualTo(size + threads);
+	}
+}
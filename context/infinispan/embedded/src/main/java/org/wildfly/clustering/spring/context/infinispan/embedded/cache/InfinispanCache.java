@@ -5,6 +5,8 @@
 
 package org.wildfly.clustering.spring.context.infinispan.embedded.cache;
 
+import java.util.Optional;
+
 import org.wildfly.clustering.cache.infinispan.embedded.EmbeddedCacheConfiguration;
 import org.wildfly.clustering.marshalling.MarshalledValue;
 import org.wildfly.clustering.spring.context.cache.AbstractCache;
@@ -22,11 +24,25 @@ public class InfinispanCache<C> extends AbstractCache<MarshalledValue<Object, C>
 	public interface Configuration<C> extends AbstractCache.MarshalledValueConfiguration<C>, EmbeddedCacheConfiguration {
 	}
 
+	private final org.infinispan.Cache<?, ?> cache;
+	private final Optional<Object> listener;
+
 	/**
 	 * Constructs a new cache from the specified configuration.
 	 * @param configuration the configuration of this cache
 	 */
 	public InfinispanCache(Configuration<C> configuration) {
 		super(configuration);
+		this.cache = configuration.getCache();
+		// Discard locally retained values once written by any node
+		// Invalidation caches reject cluster listeners, but notify a local listener of writes by other nodes via invalidation
+		boolean invalidation = this.cache.getCacheConfiguration().clustering().cacheMode().isInvalidation();
+		this.listener = this.getLocalValueTier().map(tier -> invalidation ? new LocalValueTierInvalidator.NonClustered<>(tier) : new LocalValueTierInvalidator<>(tier));
+		this.listener.ifPresent(this.cache::addListener);
+	}
+
+	@Override
+	public void close() {
+		this.listener.ifPresent(this.cache::removeListener);
 	}
 }
@@ -5,6 +5,8 @@
 
 package org.wildfly.clustering.spring.context.infinispan.embedded.cache;
 
+import java.time.Duration;
+import java.util.Optional;
 import java.util.function.BiFunction;
 
 import org.infinispan.manager.CacheContainer;
@@ -16,6 +18,7 @@ import org.wildfly.clustering.marshalling.ByteBufferMarshalledKeyFactory;
 import org.wildfly.clustering.marshalling.ByteBufferMarshalledValueFactory;
 import org.wildfly.clustering.marshalling.ByteBufferMarshaller;
 import org.wildfly.clustering.marshalling.MarshalledValueFactory;
+import org.wildfly.clustering.server.immutable.Immutability;
 import org.wildfly.clustering.spring.context.cache.AbstractCacheManager;
 
 /**
@@ -37,11 +40,14 @@ public class InfinispanCacheManager extends AbstractCacheManager {
 	}
 
 	@Override
-	public @Nullable Cache getCache(String name) {
+	protected @Nullable Cache createCache(String name) {
 		CacheContainer container = this.container;
 		ByteBufferMarshaller marshaller = this.getMarshaller();
 		MarshalledValueFactory<ByteBufferMarshaller> keyFactory = new ByteBufferMarshalledKeyFactory(marshaller);
 		MarshalledValueFactory<ByteBufferMarshaller> valueFactory = new ByteBufferMarshalledValueFactory(marshaller);
+		int localValueTierSize = this.getLocalValueTierSize();
+		Immutability immutability = this.getImmutability();
+		Optional<Duration> singleFlightTimeout = this.getSingleFlightTimeout();
 		return new InfinispanCache<>(new InfinispanCache.Configuration<ByteBufferMarshaller>() {
 			@Override
 			public MarshalledValueFactory<ByteBufferMarshaller> getKeyMarshalledValueFactory() {
@@ -53,10 +59,30 @@ public class InfinispanCacheManager extends AbstractCacheManager {
 				return valueFactory;
 			}
 
+			@Override
+			public int getLocalValueTierSize() {
+				return localValueTierSize;
+			}
+
+			@Override
+			public Immutability getImmutability() {
+				return immutability;
+			}
+
+			@Override
+			public Optional<Duration> getSingleFlightTimeout() {
+				return singleFlightTimeout;
+			}
+
 			@Override
 			public <K, V> org.infinispan.Cache<K, V> getCache() {
 				return container.getCache(name);
 			}
 		});
 	}
+
+	@Override
+	protected boolean isAvailable(Cache cache) {
+		return (cache.getNativeCache() instanceof org.infinispan.Cache<?, ?> nativeCache) && nativeCache.getStatus().allowInvocations();
+	}
 }
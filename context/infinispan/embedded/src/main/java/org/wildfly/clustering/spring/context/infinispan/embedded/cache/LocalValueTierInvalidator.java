@@ -0,0 +1,90 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.clustering.spring.context.infinispan.embedded.cache;
+
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntriesEvicted;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryExpired;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryInvalidated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryModified;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryRemoved;
+import org.infinispan.notifications.cachelistener.event.CacheEntriesEvictedEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryEvent;
+import org.wildfly.clustering.spring.context.cache.LocalValueTier;
+
+/**
+ * Cluster-wide cache listener that discards the values retained by a local value tier once their keys are written by any node.
+ * Invalidation caches must instead use a {@link NonClustered} listener.
+ * @author Paul Ferraro
+ * @param <K> the cache key type
+ * @param <V> the cache value type
+ */
+@Listener(clustered = true)
+public class LocalValueTierInvalidator<K, V> {
+
+	private final LocalValueTier<K, V> tier;
+
+	/**
+	 * Creates a listener that invalidates the specified local value tier.
+	 * @param tier a local value tier
+	 */
+	public LocalValueTierInvalidator(LocalValueTier<K, V> tier) {
+		this.tier = tier;
+	}
+
+	/**
+	 * Discards any value retained for the key of the specified event.
+	 * @param event a cache entry event
+	 */
+	@CacheEntryModified
+	@CacheEntryRemoved
+	@CacheEntryExpired
+	public void invalidate(CacheEntryEvent<K, V> event) {
+		this.tier.invalidate(event.getKey());
+	}
+
+	/**
+	 * Non-clustered cache listener for invalidation caches, which reject cluster listeners.
+	 * Writes by other nodes are observed via the invalidation of the local entry.
+	 * Since invalidations are only observed for entries present locally, values of evicted entries are also discarded.
+	 * @param <K> the cache key type
+	 * @param <V> the cache value type
+	 */
+	@Listener
+	public static class NonClustered<K, V> {
+
+		private final LocalValueTier<K, V> tier;
+
+		/**
+		 * Creates a listener that invalidates the specified local value tier.
+		 * @param tier a local value tier
+		 */
+		public NonClustered(LocalValueTier<K, V> tier) {
+			this.tier = tier;
+		}
+
+		/**
+		 * Discards any value retained for the key of the specified event.
+		 * @param event a cache entry event
+		 */
+		@CacheEntryModified
+		@CacheEntryRemoved
+		@CacheEntryExpired
+		@CacheEntryInvalidated
+		public void invalidate(CacheEntryEvent<K, V> event) {
+			this.tier.invalidate(event.getKey());
+		}
+
+		/**
+		 * Discards any values retained for the keys of the evicted entries.
+		 * @param event a cache entries evicted event
+		 */
+		@CacheEntriesEvicted
+		public void evicted(CacheEntriesEvictedEvent<K, V> event) {
+			event.getEntries().keySet().forEach(this.tier::invalidate);
+		}
+	}
+}
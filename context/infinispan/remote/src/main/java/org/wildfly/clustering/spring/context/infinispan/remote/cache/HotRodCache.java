@@ -5,12 +5,22 @@
 
 package org.wildfly.clustering.spring.context.infinispan.remote.cache;
 
+import java.util.Optional;
+
+import org.infinispan.client.hotrod.RemoteCache;
 import org.wildfly.clustering.cache.infinispan.remote.RemoteCacheConfiguration;
 import org.wildfly.clustering.marshalling.MarshalledValue;
 import org.wildfly.clustering.spring.context.cache.AbstractCache;
 
 /**
  * A {@link org.springframework.cache.Cache} based on a remote Infinispan cache.
+ * <p>
+ * Single-flight value loading relies on the conditional operations of the read/write cache, which are safe for a remote cache:
+ * <ul>
+ * <li>{@code putIfAbsent(...)} returns the existing value, since the read/write cache applies {@link org.infinispan.client.hotrod.Flag#FORCE_RETURN_VALUE}.</li>
+ * <li>{@code replace(key, expected, value)} and {@code remove(key, expected)} are implemented by the client via {@code getWithMetadata(...)} followed by {@code replaceWithVersion(...)} or {@code removeWithVersion(...)}, and thus fail if the entry was written by any client since it was read.</li>
+ * <li>Expected values are compared via the equality of their marshalled form, thus the loading marker is never deserialized.</li>
+ * </ul>
  * @author Paul Ferraro
  * @param <C> the marshalled value context
  */
@@ -22,11 +32,23 @@ public class HotRodCache<C> extends AbstractCache<MarshalledValue<Object, C>, Ma
 	public interface Configuration<C> extends MarshalledValueConfiguration<C>, RemoteCacheConfiguration {
 	}
 
+	private final RemoteCache<?, ?> cache;
+	private final Optional<LocalValueTierInvalidator<MarshalledValue<Object, C>, MarshalledValue<Object, C>>> listener;
+
 	/**
 	 * Constructs a new cache from the specified configuration.
 	 * @param configuration the configuration of this cache
 	 */
 	public HotRodCache(Configuration<C> configuration) {
 		super(configuration);
+		this.cache = configuration.getCache();
+		// Discard locally retained values once written by any node
+		this.listener = this.getLocalValueTier().map(LocalValueTierInvalidator::new);
+		this.listener.ifPresent(this.cache::addClientListener);
+	}
+
+	@Override
+	public void close() {
+		this.listener.ifPresent(this.cache::removeClientListener);
 	}
 }
@@ -5,6 +5,8 @@
 
 package org.wildfly.clustering.spring.context.infinispan.remote.cache;
 
+import java.time.Duration;
+import java.util.Optional;
 import java.util.function.BiFunction;
 
 import org.infinispan.client.hotrod.RemoteCache;
@@ -17,6 +19,7 @@ import org.wildfly.clustering.marshalling.ByteBufferMarshalledKeyFactory;
 import org.wildfly.clustering.marshalling.ByteBufferMarshalledValueFactory;
 import org.wildfly.clustering.marshalling.ByteBufferMarshaller;
 import org.wildfly.clustering.marshalling.MarshalledValueFactory;
+import org.wildfly.clustering.server.immutable.Immutability;
 import org.wildfly.clustering.spring.context.cache.AbstractCacheManager;
 
 /**
@@ -38,11 +41,14 @@ public class HotRodCacheManager extends AbstractCacheManager {
 	}
 
 	@Override
-	public @Nullable Cache getCache(String name) {
+	protected @Nullable Cache createCache(String name) {
 		RemoteCacheContainer container = this.container;
 		ByteBufferMarshaller marshaller = this.getMarshaller();
 		MarshalledValueFactory<ByteBufferMarshaller> keyFactory = new ByteBufferMarshalledKeyFactory(marshaller);
 		MarshalledValueFactory<ByteBufferMarshaller> valueFactory = new ByteBufferMarshalledValueFactory(marshaller);
+		int localValueTierSize = this.getLocalValueTierSize();
+		Immutability immutability = this.getImmutability();
+		Optional<Duration> singleFlightTimeout = this.getSingleFlightTimeout();
 		return new HotRodCache<>(new HotRodCache.Configuration<ByteBufferMarshaller>() {
 			@Override
 			public MarshalledValueFactory<ByteBufferMarshaller> getKeyMarshalledValueFactory() {
@@ -54,10 +60,30 @@ public class HotRodCacheManager extends AbstractCacheManager {
 				return valueFactory;
 			}
 
+			@Override
+			public int getLocalValueTierSize() {
+				return localValueTierSize;
+			}
+
+			@Override
+			public Immutability getImmutability() {
+				return immutability;
+			}
+
+			@Override
+			public Optional<Duration> getSingleFlightTimeout() {
+				return singleFlightTimeout;
+			}
+
 			@Override
 			public <K, V> RemoteCache<K, V> getCache() {
 				return container.getCache(name);
 			}
 		});
 	}
+
+	@Override
+	protected boolean isAvailable(Cache cache) {
+		return (cache.getNativeCache() instanceof RemoteCache<?, ?> nativeCache) && nativeCache.getRemoteCacheContainer().isStarted();
+	}
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.clustering.spring.context.infinispan.remote.cache;
+
+import org.infinispan.client.hotrod.annotation.ClientCacheEntryExpired;
+import org.infinispan.client.hotrod.annotation.ClientCacheEntryModified;
+import org.infinispan.client.hotrod.annotation.ClientCacheEntryRemoved;
+import org.infinispan.client.hotrod.annotation.ClientCacheFailover;
+import org.infinispan.client.hotrod.annotation.ClientListener;
+import org.infinispan.client.hotrod.event.ClientCacheEntryExpiredEvent;
+import org.infinispan.client.hotrod.event.ClientCacheEntryModifiedEvent;
+import org.infinispan.client.hotrod.event.ClientCacheEntryRemovedEvent;
+import org.infinispan.client.hotrod.event.ClientCacheFailoverEvent;
+import org.wildfly.clustering.spring.context.cache.LocalValueTier;
+
+/**
+ * Client cache listener that discards the values retained by a local value tier once their keys are written by any client.
+ * @author Paul Ferraro
+ * @param <K> the cache key type
+ * @param <V> the cache value type
+ */
+@ClientListener
+public class LocalValueTierInvalidator<K, V> {
+
+	private final LocalValueTier<K, V> tier;
+
+	/**
+	 * Creates a listener that invalidates the specified local value tier.
+	 * @param tier a local value tier
+	 */
+	public LocalValueTierInvalidator(LocalValueTier<K, V> tier) {
+		this.tier = tier;
+	}
+
+	/**
+	 * Discards any value retained for the modified key.
+	 * @param event a cache entry event
+	 */
+	@ClientCacheEntryModified
+	public void modified(ClientCacheEntryModifiedEvent<K> event) {
+		this.tier.invalidate(event.getKey());
+	}
+
+	/**
+	 * Discards any value retained for the removed key.
+	 * @param event a cache entry event
+	 */
+	@ClientCacheEntryRemoved
+	public void removed(ClientCacheEntryRemovedEvent<K> event) {
+		this.tier.invalidate(event.getKey());
+	}
+
+	/**
+	 * Discards any value retained for the expired key.
+	 * @param event a cache entry event
+	 */
+	@ClientCacheEntryExpired
+	public void expired(ClientCacheEntryExpiredEvent<K> event) {
+		this.tier.invalidate(event.getKey());
+	}
+
+	/**
+	 * Discards all retained values, since events may have been missed during failover.
+	 * @param event a failover event
+	 */
+	@ClientCacheFailover
+	public void failover(ClientCacheFailoverEvent event) {
+		this.tier.clear();
+	}
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.spring.session;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+import org.springframework.session.events.AbstractSessionEvent;
+import org.springframework.session.events.SessionCreatedEvent;
+import org.springframework.session.events.SessionDeletedEvent;
+import org.springframework.session.events.SessionDestroyedEvent;
+import org.springframework.session.events.SessionExpiredEvent;
+
+/**
+ * An application event publisher decorator that publishes session events asynchronously via a given executor.
+ * Events for a given session are published in the order in which they were submitted.
+ * Since a distributable session is not valid beyond the scope of the thread that submitted the event, events are published with a detached snapshot of their session, containing only its identifier, meta data, and persisted indexes, e.g. its principal name, each as an attribute named by its index name.
+ * This avoids reading, and potentially deserializing, every session attribute on the submitting thread.
+ * Listeners that require other session attributes should not be published asynchronously.
+ * The number of pending events is bounded, beyond which events are handled according to an {@link OverflowPolicy}.
+ * All other application events are published synchronously.
+ * @author Paul Ferraro
+ */
+public class AsyncSessionEventPublisher implements ApplicationEventPublisher {
+	private static final System.Logger LOGGER = System.getLogger(AsyncSessionEventPublisher.class.getPackageName());
+
+	/**
+	 * Enumerates the policies for handling session events submitted while the queue of pending events is full.
+	 */
+	public enum OverflowPolicy {
+		/** Blocks the submitting thread until the queue has capacity. */
+		BLOCK,
+		/** Publishes the event on the submitting thread, following any pending events for the same session. */
+		CALLER_RUNS,
+		/** Discards the event. */
+		DISCARD,
+	}
+
+	private final ApplicationEventPublisher publisher;
+	private final Executor executor;
+	private final int limit;
+	private final Semaphore capacity;
+	private final OverflowPolicy policy;
+	// Tail of the pending events, per session identifier
+	private final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+	private final LongAdder published = new LongAdder();
+	private final LongAdder callerRuns = new LongAdder();
+	private final LongAdder discarded = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+
+	/**
+	 * Creates an asynchronous session event publisher.
+	 * @param publisher the decorated event publisher
+	 * @param executor the executor used to publish session events
+	 * @param capacity the maximum number of pending session events
+	 * @param policy the policy for handling session events submitted when the number of pending session events reaches capacity
+	 */
+	public AsyncSessionEventPublisher(ApplicationEventPublisher publisher, Executor executor, int capacity, OverflowPolicy policy) {
+		this.publisher = publisher;
+		this.executor = executor;
+		this.limit = capacity;
+		this.capacity = new Semaphore(capacity);
+		this.policy = policy;
+	}
+
+	@Override
+	public void publishEvent(Object event) {
+		if (event instanceof AbstractSessionEvent sessionEvent) {
+			this.publishSessionEvent(sessionEvent);
+		} else {
+			this.publisher.publishEvent(event);
+		}
+	}
+
+	private void publishSessionEvent(AbstractSessionEvent event) {
+		String id = event.getSessionId();
+		if (!this.capacity.tryAcquire()) {
+			switch (this.policy) {
+				case BLOCK -> this.capacity.acquireUninterruptibly();
+				case CALLER_RUNS -> {
+					this.callerRuns.increment();
+					// Preserve ordering of events for this session
+					CompletableFuture<Void> tail = this.tails.get(id);
+					if (tail != null) {
+						try {
+							tail.join();
+						} catch (CompletionException | CancellationException e) {
+							// Failure of a preceding event must not propagate to the submitting thread
+							LOGGER.log(System.Logger.Level.DEBUG, e.getLocalizedMessage(), e);
+						}
+					}
+					this.publish(snapshot(event));
+					return;
+				}
+				case DISCARD -> {
+					this.discarded.increment();
+					LOGGER.log(System.Logger.Level.WARNING, "Discarding {0} for session {1}", event.getClass().getSimpleName(), id);
+					return;
+				}
+			}
+		}
+		ApplicationEvent snapshot = snapshot(event);
+		CompletableFuture<Void> tail = new CompletableFuture<>();
+		CompletableFuture<Void> previous = this.tails.put(id, tail);
+		tail.whenComplete((result, exception) -> {
+			this.capacity.release();
+			this.tails.remove(id, tail);
+			if (exception != null) {
+				// e.g. executor rejected task
+				this.failed.increment();
+				LOGGER.log(System.Logger.Level.WARNING, exception.getLocalizedMessage(), exception);
+			}
+		});
+		// Submit once any preceding event for this session was published
+		Runnable submission = () -> this.submit(snapshot, tail);
+		if (previous != null) {
+			previous.whenComplete((result, exception) -> submission.run());
+		} else {
+			submission.run();
+		}
+	}
+
+	private void submit(ApplicationEvent event, CompletableFuture<Void> future) {
+		try {
+			this.executor.execute(() -> {
+				try {
+					this.publish(event);
+				} finally {
+					future.complete(null);
+				}
+			});
+		} catch (RuntimeException e) {
+			// Submission may run via the thread completing a preceding event, thus a rejection must complete the future, rather than propagate
+			future.completeExceptionally(e);
+		}
+	}
+
+	private void publish(ApplicationEvent event) {
+		try {
+			this.publisher.publishEvent(event);
+			this.published.increment();
+		} catch (RuntimeException e) {
+			this.failed.increment();
+			LOGGER.log(System.Logger.Level.WARNING, e.getLocalizedMessage(), e);
+		}
+	}
+
+	private static ApplicationEvent snapshot(AbstractSessionEvent event) {
+		Session session = snapshot(event.<Session>getSession());
+		Object source = event.getSource();
+		if (event instanceof SessionCreatedEvent) {
+			return new SessionCreatedEvent(source, session);
+		}
+		if (event instanceof SessionExpiredEvent) {
+			return new SessionExpiredEvent(source, session);
+		}
+		if (event instanceof SessionDeletedEvent) {
+			return new SessionDeletedEvent(source, session);
+		}
+		if (event instanceof SessionDestroyedEvent) {
+			return new SessionDestroyedEvent(source, session);
+		}
+		// Unknown session event type, publish as is
+		return event;
+	}
+
+	private static Session snapshot(Session session) {
+		MapSession snapshot = new MapSession(session.getId());
+		snapshot.setCreationTime(session.getCreationTime());
+		snapshot.setLastAccessedTime(session.getLastAccessedTime());
+		snapshot.setMaxInactiveInterval(session.getMaxInactiveInterval());
+		// Expose persisted indexes, e.g. principal name, to listeners, as read by the corresponding index resolver
+		Map<String, String> indexes = session.getAttribute(DistributableImmutableSession.INDEXES_ATTRIBUTE_NAME);
+		if (indexes != null) {
+			indexes.forEach(snapshot::setAttribute);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Returns the number of session events awaiting publication.
+	 * @return the number of pending session events
+	 */
+	public int getPendingCount() {
+		return this.limit - this.capacity.availablePermits();
+	}
+
+	/**
+	 * Returns the number of session events successfully published.
+	 * @return the number of published session events
+	 */
+	public long getPublishedCount() {
+		return this.published.sum();
+	}
+
+	/**
+	 * Returns the number of session events published by the submitting thread, per {@link OverflowPolicy#CALLER_RUNS}.
+	 * @return the number of session events published by the submitting thread
+	 */
+	public long getCallerRunsCount() {
+		return this.callerRuns.sum();
+	}
+
+	/**
+	 * Returns the number of session events discarded, per {@link OverflowPolicy#DISCARD}.
+	 * @return the number of discarded session events
+	 */
+	public long getDiscardedCount() {
+		return this.discarded.sum();
+	}
+
+	/**
+	 * Returns the number of session events whose publication failed.
+	 * @return the number of failed session events
+	 */
+	public long getFailedCount() {
+		return this.failed.sum();
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.spring.session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.session.Session;
+
+/**
+ * An empty session that records the names of the attributes read from it, used to determine the attributes from which an index resolver resolves indexes.
+ * @author Paul Ferraro
+ */
+class AttributeNameRecordingSession implements Session {
+	private final Set<String> names = new TreeSet<>();
+
+	/**
+	 * Returns the names of the attributes read from this session.
+	 * @return a set of attribute names
+	 */
+	Set<String> getRecordedAttributeNames() {
+		return Collections.unmodifiableSet(this.names);
+	}
+
+	@Override
+	public String getId() {
+		return "";
+	}
+
+	@Override
+	public String changeSessionId() {
+		return this.getId();
+	}
+
+	@Override
+	public <T> T getAttribute(String attributeName) {
+		this.names.add(attributeName);
+		return null;
+	}
+
+	@Override
+	public Set<String> getAttributeNames() {
+		return Set.of();
+	}
+
+	@Override
+	public void setAttribute(String attributeName, Object attributeValue) {
+		// Do nothing
+	}
+
+	@Override
+	public void removeAttribute(String attributeName) {
+		// Do nothing
+	}
+
+	@Override
+	public Instant getCreationTime() {
+		return Instant.EPOCH;
+	}
+
+	@Override
+	public void setLastAccessedTime(Instant lastAccessedTime) {
+		// Do nothing
+	}
+
+	@Override
+	public Instant getLastAccessedTime() {
+		return Instant.EPOCH;
+	}
+
+	@Override
+	public void setMaxInactiveInterval(Duration interval) {
+		// Do nothing
+	}
+
+	@Override
+	public Duration getMaxInactiveInterval() {
+		return Duration.ZERO;
+	}
+
+	@Override
+	public boolean isExpired() {
+		return false;
+	}
+}
@@ -8,7 +8,9 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
+import org.springframework.session.IndexResolver;
 import org.wildfly.clustering.function.Function;
 import org.wildfly.clustering.function.Predicate;
 import org.wildfly.clustering.server.util.Reference;
@@ -21,6 +23,12 @@ import org.wildfly.clustering.session.ImmutableSessionMetaData;
  * @param <S> the session type
  */
 public class DistributableImmutableSession<S extends ImmutableSession> implements SpringSession {
+	/** The name of an internal session attribute containing the names of those attributes whose values are {@link jakarta.servlet.http.HttpSessionBindingListener} instances, present in every session created by this version, such that sessions lacking this attribute are known to be untracked. */
+	public static final String BINDING_LISTENER_ATTRIBUTE_NAMES = "org.wildfly.clustering.spring.session.BINDING_LISTENERS";
+	/** The name of an internal session attribute containing the persistent indexes of this session, present only if the session has any indexes. */
+	public static final String INDEXES_ATTRIBUTE_NAME = "org.wildfly.clustering.spring.session.INDEXES";
+	static final Set<String> INTERNAL_ATTRIBUTE_NAMES = Set.of(BINDING_LISTENER_ATTRIBUTE_NAMES, INDEXES_ATTRIBUTE_NAME);
+
 	private static final Predicate<ImmutableSessionMetaData> EXPIRED = ImmutableSessionMetaData::isExpired;
 
 	private final Reference.Reader<S> reader;
@@ -55,7 +63,25 @@ public class DistributableImmutableSession<S extends ImmutableSession> implement
 
 	@Override
 	public Set<String> getAttributeNames() {
-		return this.attributesReader.map(ImmutableSession.ATTRIBUTE_NAMES).get();
+		Set<String> names = this.attributesReader.map(ImmutableSession.ATTRIBUTE_NAMES).get();
+		// Hide internal attributes
+		for (String internalName : INTERNAL_ATTRIBUTE_NAMES) {
+			if (names.contains(internalName)) {
+				return names.stream().filter(java.util.function.Predicate.not(INTERNAL_ATTRIBUTE_NAMES::contains)).collect(Collectors.toUnmodifiableSet());
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * Returns the persistent indexes of this session, resolving them via the specified resolver only if they were not stored with this session.
+	 * @param resolver an index resolver
+	 * @return a map of index values per index name
+	 */
+	public Map<String, String> getPersistentIndexes(IndexResolver<org.springframework.session.Session> resolver) {
+		Map<String, String> indexes = this.getAttribute(INDEXES_ATTRIBUTE_NAME);
+		// Sessions without indexes, or created prior to the storing of indexes, do not contain this attribute
+		return (indexes != null) ? indexes : resolver.resolveIndexesFor(this);
 	}
 
 	@Override
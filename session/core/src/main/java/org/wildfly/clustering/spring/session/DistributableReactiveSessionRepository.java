@@ -0,0 +1,324 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.spring.session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.StampedLock;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.session.MapSession;
+import org.springframework.session.ReactiveFindByIndexNameSessionRepository;
+import org.springframework.session.ReactiveSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.events.SessionCreatedEvent;
+import org.wildfly.clustering.cache.batch.Batch;
+import org.wildfly.clustering.function.BiConsumer;
+import org.wildfly.clustering.function.BiFunction;
+import org.wildfly.clustering.function.Supplier;
+import org.wildfly.clustering.server.util.Reference;
+import org.wildfly.clustering.session.ImmutableSession;
+import org.wildfly.clustering.session.SessionManager;
+import org.wildfly.clustering.session.user.User;
+import org.wildfly.clustering.session.user.UserManager;
+import org.wildfly.clustering.spring.context.SessionAccessRecorder;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * A reactive Spring Session repository facade for a {@link SessionManager}.
+ * Additionally indexes sessions using a set of {@link UserManager} instances.
+ * Sessions are located and created via the asynchronous methods of the session manager, while blocking operations, e.g. session close, run via the specified scheduler.
+ * A created session is not persisted until first saved, thus a created session that is never saved requires no cleanup.
+ * Subsequent saves of a created session write its state to the persisted session.
+ * A session returned by {@link #findById(String)} remains locked until passed to {@link #save(Session)} or {@link #deleteById(String)}, or until its exchange completes, if located within the scope of a {@link ReactiveSessionCloseFilter}.
+ * @author Paul Ferraro
+ */
+public class DistributableReactiveSessionRepository implements ReactiveSessionRepository<Session>, ReactiveFindByIndexNameSessionRepository<Session>, DisposableBean {
+	private final SessionManager<Void> manager;
+	private final ApplicationEventPublisher publisher;
+	private final BiConsumer<ImmutableSession, BiFunction<Object, Session, ApplicationEvent>> destroyAction;
+	private final UserConfiguration indexing;
+	private final SessionAccessRecorder accessRecorder;
+	private final Supplier<Optional<Duration>> defaultTimeout;
+	private final Scheduler scheduler;
+	private final StampedLock lifecycleLock = new StampedLock();
+
+	/**
+	 * Create a reactive session repository from the specified configuration.
+	 * @param configuration a session repository configuration
+	 * @param scheduler a scheduler for blocking session operations
+	 */
+	public DistributableReactiveSessionRepository(DistributableSessionRepositoryConfiguration configuration, Scheduler scheduler) {
+		this.manager = configuration.getSessionManager();
+		this.publisher = configuration.getEventPublisher();
+		this.destroyAction = configuration.getSessionDestroyAction();
+		this.indexing = configuration.getUserConfiguration();
+		this.accessRecorder = configuration.getSessionAccessRecorder();
+		this.defaultTimeout = configuration::getDefaultMaxInactiveInterval;
+		this.scheduler = scheduler;
+	}
+
+	@Override
+	public void destroy() {
+		try {
+			this.lifecycleLock.writeLockInterruptibly();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public Mono<Session> createSession() {
+		// Defer creation of distributable session until save
+		return Mono.fromSupplier(this.manager.getIdentifierFactory()).map(id -> {
+			NewSession session = new NewSession(id, this.manager.getIdentifierFactory());
+			this.defaultTimeout.get().ifPresent(session::setMaxInactiveInterval);
+			return session;
+		});
+	}
+
+	@Override
+	public Mono<Session> findById(String id) {
+		return Mono.deferContextual(context -> {
+			Optional<Set<SpringSession>> exchangeSessions = ReactiveSessionCloseFilter.getSessions(context);
+			Runnable closeTask = this.getSessionCloseTask();
+			return Mono.fromCompletionStage(this.manager.findSessionAsync(id))
+					.filter(session -> {
+						if (!session.isValid()) {
+							session.close();
+							return false;
+						}
+						return true;
+					})
+					.<Session>map(session -> {
+						AtomicReference<SpringSession> reference = new AtomicReference<>();
+						SpringSession result = new DistributableSession(this.manager, session, () -> {
+							try {
+								exchangeSessions.ifPresent(sessions -> sessions.remove(reference.get()));
+							} finally {
+								closeTask.run();
+							}
+						}, this.indexing, this.destroyAction, this.accessRecorder);
+						reference.set(result);
+						// Ensure session is closed once its exchange completes, even if never saved
+						exchangeSessions.ifPresent(sessions -> sessions.add(result));
+						return result;
+					})
+					.switchIfEmpty(Mono.fromRunnable(closeTask))
+					.doOnError(exception -> closeTask.run());
+		});
+	}
+
+	@Override
+	public Mono<Void> save(Session session) {
+		if (session instanceof SpringSession springSession) {
+			// Session close blocks, thus must not run on the subscribing thread
+			return Mono.<Void>fromRunnable(springSession::close).subscribeOn(this.scheduler);
+		}
+		if (session instanceof NewSession newSession) {
+			return Mono.defer(() -> {
+				String id = newSession.getId();
+				// Only the first save of a created session persists it
+				return newSession.persistentId.compareAndSet(null, id) ? this.persist(newSession, id) : this.update(newSession);
+			});
+		}
+		return Mono.error(new IllegalArgumentException(session.getId()));
+	}
+
+	private Mono<Void> persist(NewSession newSession, String id) {
+		Runnable closeTask = this.getSessionCloseTask();
+		return Mono.fromCompletionStage(this.manager.createSessionAsync(id, newSession.getCreationTime()))
+				.publishOn(this.scheduler)
+				.map(DistributableSession::initialize)
+				.doOnNext(session -> {
+					try (SpringSession distributableSession = new DistributableSession(this.manager, session, closeTask, this.indexing, this.destroyAction, this.accessRecorder)) {
+						write(newSession, distributableSession);
+						this.publisher.publishEvent(new SessionCreatedEvent(this, distributableSession));
+					}
+				})
+				.switchIfEmpty(Mono.fromRunnable(closeTask))
+				.doOnError(exception -> {
+					// Permit a subsequent save to retry
+					newSession.persistentId.compareAndSet(id, null);
+					closeTask.run();
+				})
+				.then();
+	}
+
+	private Mono<Void> update(NewSession newSession) {
+		String persistentId = newSession.persistentId.get();
+		Runnable closeTask = this.getSessionCloseTask();
+		return Mono.fromCompletionStage(this.manager.findSessionAsync(persistentId))
+				.publishOn(this.scheduler)
+				.doOnNext(session -> {
+					try (DistributableSession distributableSession = new DistributableSession(this.manager, session, closeTask, this.indexing, this.destroyAction, this.accessRecorder)) {
+						// Persisted session may have expired or been invalidated
+						if (session.isValid()) {
+							String id = newSession.getId();
+							if (!id.equals(persistentId)) {
+								distributableSession.changeSessionId(id);
+								newSession.persistentId.set(id);
+							}
+							write(newSession, distributableSession);
+						}
+					}
+				})
+				.switchIfEmpty(Mono.fromRunnable(closeTask))
+				.doOnError(exception -> closeTask.run())
+				.then();
+	}
+
+	private static void write(Session source, SpringSession target) {
+		target.setMaxInactiveInterval(source.getMaxInactiveInterval());
+		Set<String> names = source.getAttributeNames();
+		for (String name : List.copyOf(target.getAttributeNames())) {
+			if (!names.contains(name)) {
+				target.removeAttribute(name);
+			}
+		}
+		for (String name : names) {
+			target.setAttribute(name, source.getAttribute(name));
+		}
+	}
+
+	@Override
+	public Mono<Void> deleteById(String id) {
+		return Mono.deferContextual(context -> {
+			// A session is not thread-safe, thus only reuse a session already located by the same exchange
+			Optional<SpringSession> current = ReactiveSessionCloseFilter.getSessions(context).flatMap(sessions -> sessions.stream().filter(session -> session.getId().equals(id)).findAny());
+			if (current.isPresent()) {
+				return Mono.<Void>fromRunnable(current.get()::invalidate).subscribeOn(this.scheduler);
+			}
+			return this.findById(id).publishOn(this.scheduler).cast(SpringSession.class).doOnNext(SpringSession::invalidate).then();
+		});
+	}
+
+	@Override
+	public Mono<Map<String, Session>> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+		return Mono.defer(() -> {
+			Map<String, String> sessions = Map.of();
+			UserManager<Void, Void, String, String> manager = this.indexing.getUserManagers().get(indexName);
+			if (manager != null) {
+				// N.B. UserManager does not expose asynchronous methods
+				try (Batch batch = manager.getBatchFactory().get()) {
+					User<Void, Void, String, String> sso = manager.findUser(indexValue);
+					if (sso != null) {
+						sessions = Map.copyOf(sso.getSessions().getSessions());
+					}
+				}
+			}
+			return Flux.fromIterable(sessions.values())
+					.flatMap(id -> Mono.fromCompletionStage(this.manager.findImmutableSessionAsync(id)))
+					.<String, Session>collectMap(ImmutableSession::getId, session -> new DistributableImmutableSession<>(Reference.of(session)));
+		});
+	}
+
+	private Runnable getSessionCloseTask() {
+		StampedLock lock = this.lifecycleLock;
+		long stamp = lock.tryReadLock();
+		if (!StampedLock.isReadLockStamp(stamp)) {
+			throw new IllegalStateException();
+		}
+		AtomicLong stampRef = new AtomicLong(stamp);
+		return new Runnable() {
+			@Override
+			public void run() {
+				// Ensure we only unlock once.
+				long stamp = stampRef.getAndSet(0L);
+				if (StampedLock.isReadLockStamp(stamp)) {
+					lock.unlockRead(stamp);
+				}
+			}
+		};
+	}
+
+	/**
+	 * A session created by this repository, whose state is written to a distributable session on save.
+	 */
+	private static class NewSession implements Session {
+		private final MapSession session;
+		private final Supplier<String> identifierFactory;
+		// Identifier of the persisted session, or null if not yet persisted
+		final AtomicReference<String> persistentId = new AtomicReference<>();
+
+		NewSession(String id, Supplier<String> identifierFactory) {
+			this.session = new MapSession(id);
+			this.identifierFactory = identifierFactory;
+		}
+
+		@Override
+		public String getId() {
+			return this.session.getId();
+		}
+
+		@Override
+		public String changeSessionId() {
+			String id = this.identifierFactory.get();
+			this.session.setId(id);
+			return id;
+		}
+
+		@Override
+		public <T> T getAttribute(String attributeName) {
+			return this.session.getAttribute(attributeName);
+		}
+
+		@Override
+		public Set<String> getAttributeNames() {
+			return this.session.getAttributeNames();
+		}
+
+		@Override
+		public void setAttribute(String attributeName, Object attributeValue) {
+			this.session.setAttribute(attributeName, attributeValue);
+		}
+
+		@Override
+		public void removeAttribute(String attributeName) {
+			this.session.removeAttribute(attributeName);
+		}
+
+		@Override
+		public Instant getCreationTime() {
+			return this.session.getCreationTime();
+		}
+
+		@Override
+		public void setLastAccessedTime(Instant lastAccessedTime) {
+			this.session.setLastAccessedTime(lastAccessedTime);
+		}
+
+		@Override
+		public Instant getLastAccessedTime() {
+			return this.session.getLastAccessedTime();
+		}
+
+		@Override
+		public void setMaxInactiveInterval(Duration interval) {
+			this.session.setMaxInactiveInterval(interval);
+		}
+
+		@Override
+		public Duration getMaxInactiveInterval() {
+			return this.session.getMaxInactiveInterval();
+		}
+
+		@Override
+		public boolean isExpired() {
+			return this.session.isExpired();
+		}
+	}
+}
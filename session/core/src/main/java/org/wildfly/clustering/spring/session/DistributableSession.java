@@ -6,18 +6,21 @@ package org.wildfly.clustering.spring.session;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicReference;
 
+import jakarta.servlet.http.HttpSessionBindingListener;
+
 import org.springframework.context.ApplicationEvent;
 import org.springframework.session.events.SessionDestroyedEvent;
 import org.wildfly.clustering.cache.batch.Batch;
 import org.wildfly.clustering.function.BiConsumer;
 import org.wildfly.clustering.function.BiFunction;
-import org.wildfly.clustering.function.Consumer;
 import org.wildfly.clustering.function.Function;
 import org.wildfly.clustering.server.util.BlockingReference;
 import org.wildfly.clustering.session.ImmutableSession;
@@ -26,6 +29,8 @@ import org.wildfly.clustering.session.SessionManager;
 import org.wildfly.clustering.session.SessionMetaData;
 import org.wildfly.clustering.session.user.User;
 import org.wildfly.clustering.session.user.UserManager;
+import org.wildfly.clustering.spring.context.SessionAccessRecorder;
+import org.wildfly.clustering.spring.context.SessionIdentifierChanger;
 
 /**
  * A Spring Session facade for an distributable session.
@@ -39,6 +44,9 @@ public class DistributableSession extends DistributableImmutableSession<Session<
 	private final UserConfiguration configuration;
 	private final BiConsumer<ImmutableSession, BiFunction<Object, org.springframework.session.Session, ApplicationEvent>> destroyAction;
 	private final AtomicReference<Runnable> closeTask;
+	private final SessionAccessRecorder accessRecorder;
+	// Indexes prior to the first modification of an indexed attribute, or null if no indexed attribute was modified
+	private final AtomicReference<Map<String, String>> indexes = new AtomicReference<>();
 
 	/**
 	 * Creates a Spring Session facade for an distributable session.
@@ -47,64 +55,91 @@ public class DistributableSession extends DistributableImmutableSession<Session<
 	 * @param closeTask a task to invoke on session close
 	 * @param configuration a user configuration
 	 * @param destroyAction an action to perform on session destroy
+	 * @param accessRecorder a recorder of session access
 	 */
-	public DistributableSession(SessionManager<Void> manager, Session<Void> session, Runnable closeTask, UserConfiguration configuration, BiConsumer<ImmutableSession, BiFunction<Object, org.springframework.session.Session, ApplicationEvent>> destroyAction) {
-		this(manager, BlockingReference.of(session), closeTask, configuration, destroyAction, session.getMetaData().getLastAccessTime().isEmpty() ? session.getMetaData().getCreationTime() : Instant.now());
+	public DistributableSession(SessionManager<Void> manager, Session<Void> session, Runnable closeTask, UserConfiguration configuration, BiConsumer<ImmutableSession, BiFunction<Object, org.springframework.session.Session, ApplicationEvent>> destroyAction, SessionAccessRecorder accessRecorder) {
+		this(manager, BlockingReference.of(session), closeTask, configuration, destroyAction, accessRecorder, session.getMetaData().getLastAccessTime().isEmpty() ? session.getMetaData().getCreationTime() : Instant.now());
 	}
 
-	private DistributableSession(SessionManager<Void> manager, BlockingReference<Session<Void>> reference, Runnable closeTask, UserConfiguration configuration, BiConsumer<ImmutableSession, BiFunction<Object, org.springframework.session.Session, ApplicationEvent>> destroyAction, Instant startTime) {
+	/**
+	 * Creates a Spring Session facade for an distributable session whose current access started at the specified time.
+	 * @param manager the associated session manager
+	 * @param session the distributable session
+	 * @param closeTask a task to invoke on session close
+	 * @param configuration a user configuration
+	 * @param destroyAction an action to perform on session destroy
+	 * @param accessRecorder a recorder of session access
+	 * @param startTime the time at which the current access of this session started
+	 */
+	DistributableSession(SessionManager<Void> manager, Session<Void> session, Runnable closeTask, UserConfiguration configuration, BiConsumer<ImmutableSession, BiFunction<Object, org.springframework.session.Session, ApplicationEvent>> destroyAction, SessionAccessRecorder accessRecorder, Instant startTime) {
+		this(manager, BlockingReference.of(session), closeTask, configuration, destroyAction, accessRecorder, startTime);
+	}
+
+	private DistributableSession(SessionManager<Void> manager, BlockingReference<Session<Void>> reference, Runnable closeTask, UserConfiguration configuration, BiConsumer<ImmutableSession, BiFunction<Object, org.springframework.session.Session, ApplicationEvent>> destroyAction, SessionAccessRecorder accessRecorder, Instant startTime) {
 		super(reference);
 		this.manager = manager;
 		this.reference = reference;
 		this.closeTask = new AtomicReference<>(closeTask);
 		this.configuration = configuration;
 		this.destroyAction = destroyAction;
+		this.accessRecorder = accessRecorder;
 		this.startTime = startTime;
 	}
 
 	@Override
 	public String changeSessionId() {
-		String newId = this.manager.getIdentifierFactory().get();
+		return this.changeSessionId(this.manager.getIdentifierFactory().get());
+	}
+
+	/**
+	 * Changes the identifier of this session to the specified identifier.
+	 * @param newId a new session identifier
+	 * @return the identifier of this session following this operation
+	 */
+	String changeSessionId(String newId) {
+		this.requireOpen();
 		AtomicReference<String> oldId = new AtomicReference<>();
 		String currentId = this.reference.getWriter(Session::isValid).updateAndGet(currentSession -> {
 			oldId.setPlain(currentSession.getId());
-			SessionMetaData currentMetaData = currentSession.getMetaData();
-			Map<String, Object> currentAttributes = currentSession.getAttributes();
-			Session<Void> newSession = this.manager.createSession(newId);
-			try {
-				newSession.getAttributes().putAll(currentAttributes);
-				SessionMetaData newMetaData = newSession.getMetaData();
-				currentMetaData.getMaxIdle().ifPresent(newMetaData::setMaxIdle);
-				currentMetaData.getLastAccess().ifPresent(newMetaData::setLastAccess);
-				currentSession.invalidate();
-				return newSession;
-			} catch (RuntimeException | Error e) {
-				newSession.invalidate();
-				throw e;
-			} finally {
-				Consumer.close().accept(newSession.isValid() ? currentSession : newSession);
-			}
+			return new SessionIdentifierChanger(this.manager, newId).apply(currentSession);
 		}).getId();
 		if (currentId.equals(newId)) {
-			// Update indexes
-			Map<String, String> indexes = this.configuration.getIndexResolver().resolveIndexesFor(this);
+			// Update persistent indexes, i.e. excluding any pending index changes
+			Map<String, String> indexes = this.indexes.get();
+			if (indexes == null) {
+				indexes = this.getPersistentIndexes(this.configuration.getIndexResolver());
+			}
+			List<Runnable> tasks = new ArrayList<>(indexes.size());
 			for (Map.Entry<String, String> entry : indexes.entrySet()) {
 				UserManager<Void, Void, String, String> manager = this.configuration.getUserManagers().get(entry.getKey());
 				if (manager != null) {
-					try (Batch batch = manager.getBatchFactory().get()) {
-						try (User<Void, Void, String, String> sso = manager.findUser(entry.getValue())) {
-							if (sso != null) {
-								sso.getSessions().removeSession(oldId.getPlain());
-								sso.getSessions().addSession(currentId, currentId);
+					tasks.add(() -> {
+						try (Batch batch = manager.getBatchFactory().get()) {
+							try (User<Void, Void, String, String> sso = manager.findUser(entry.getValue())) {
+								if (sso != null) {
+									sso.getSessions().removeSession(oldId.getPlain());
+									sso.getSessions().addSession(currentId, currentId);
+								}
 							}
 						}
-					}
+					});
 				}
 			}
+			this.configuration.getIndexTaskExecutor().execute(tasks);
 		}
 		return currentId;
 	}
 
+	/**
+	 * Initializes the internal attributes of a newly created session, such that it tracks its binding listener attributes.
+	 * @param session a newly created session
+	 * @return the specified session
+	 */
+	static Session<Void> initialize(Session<Void> session) {
+		session.getAttributes().put(BINDING_LISTENER_ATTRIBUTE_NAMES, Set.of());
+		return session;
+	}
+
 	@Override
 	public void removeAttribute(String name) {
 		this.setAttribute(name, null);
@@ -112,25 +147,67 @@ public class DistributableSession extends DistributableImmutableSession<Session<
 
 	@Override
 	public void setAttribute(String name, Object value) {
+		if (INTERNAL_ATTRIBUTE_NAMES.contains(name)) {
+			throw new IllegalArgumentException(name);
+		}
+		this.requireOpen();
 		this.reference.getReader().map(Session.REQUIRE_VALID).read(session -> {
-			Map<String, String> oldIndexes = this.configuration.getIndexResolver().resolveIndexesFor(this);
+			// Only resolve indexes if this attribute may contribute to an index
+			// Capture indexes prior to the first modification of an indexed attribute - to be compared against current indexes on close
+			if ((this.indexes.get() == null) && this.configuration.getIndexedAttributeNames().map(names -> names.contains(name)).orElse(true)) {
+				this.indexes.compareAndSet(null, this.getPersistentIndexes(this.configuration.getIndexResolver()));
+			}
+
+			Map<String, Object> attributes = session.getAttributes();
+			attributes.put(name, value);
 
-			session.getAttributes().put(name, value);
+			// Track the names of attributes containing binding listeners, so that these can be notified on destroy without reading every attribute
+			// Sessions created by a prior version are untracked, and remain so
+			@SuppressWarnings("unchecked")
+			Set<String> listenerNames = (Set<String>) attributes.get(BINDING_LISTENER_ATTRIBUTE_NAMES);
+			boolean listener = value instanceof HttpSessionBindingListener;
+			if ((listenerNames != null) && (listener != listenerNames.contains(name))) {
+				Set<String> names = new TreeSet<>(listenerNames);
+				if (listener) {
+					names.add(name);
+				} else {
+					names.remove(name);
+				}
+				// N.B. Retain an empty set, since the absence of this attribute indicates an untracked session
+				attributes.put(BINDING_LISTENER_ATTRIBUTE_NAMES, Set.copyOf(names));
+			}
 
 			// N.B. org.springframework.session.web.http.HttpSessionAdapter already triggers HttpSessionBindingListener events
 			// However, Spring Session violates the servlet specification by not triggering HttpSessionAttributeListener events
+		});
+	}
 
-			// Update indexes
-			Map<String, String> indexes = this.configuration.getIndexResolver().resolveIndexesFor(this);
-			if (!oldIndexes.isEmpty() || !indexes.isEmpty()) {
-				Set<String> indexNames = new TreeSet<>();
-				indexNames.addAll(oldIndexes.keySet());
-				indexNames.addAll(indexes.keySet());
-				for (String indexName : indexNames) {
-					String oldIndexValue = oldIndexes.get(indexName);
-					String indexValue = indexes.get(indexName);
-					if (!Objects.equals(indexValue, oldIndexValue)) {
-						UserManager<Void, Void, String, String> manager = this.configuration.getUserManagers().get(indexName);
+	private void updateIndexes(Session<?> session) {
+		String sessionId = session.getId();
+		Map<String, String> oldIndexes = this.indexes.getAndSet(null);
+		// Skip index resolution if no indexed attribute was modified
+		if (oldIndexes == null) {
+			return;
+		}
+		Map<String, String> indexes = this.configuration.getIndexResolver().resolveIndexesFor(this);
+		if (!oldIndexes.equals(indexes)) {
+			// Store resolved indexes with the session, so that these need not be re-resolved on destroy
+			// A session without indexes does not contain this attribute, thus its absence resolves to no indexes
+			if (indexes.isEmpty()) {
+				session.getAttributes().remove(INDEXES_ATTRIBUTE_NAME);
+			} else {
+				session.getAttributes().put(INDEXES_ATTRIBUTE_NAME, Map.copyOf(indexes));
+			}
+			Set<String> indexNames = new TreeSet<>();
+			indexNames.addAll(oldIndexes.keySet());
+			indexNames.addAll(indexes.keySet());
+			List<Runnable> tasks = new ArrayList<>(indexNames.size());
+			for (String indexName : indexNames) {
+				String oldIndexValue = oldIndexes.get(indexName);
+				String indexValue = indexes.get(indexName);
+				if (!Objects.equals(indexValue, oldIndexValue)) {
+					UserManager<Void, Void, String, String> manager = this.configuration.getUserManagers().get(indexName);
+					tasks.add(() -> {
 						try (Batch batch = manager.getBatchFactory().get()) {
 							if (oldIndexValue != null) {
 								User<Void, Void, String, String> sso = manager.findUser(oldIndexValue);
@@ -139,15 +216,15 @@ public class DistributableSession extends DistributableImmutableSession<Session<
 								}
 							}
 							if (indexValue != null) {
-								String sessionId = session.getId();
 								User<Void, Void, String, String> sso = manager.createUser(indexValue, null);
 								sso.getSessions().addSession(sessionId, sessionId);
 							}
 						}
-					}
+					});
 				}
 			}
-		});
+			this.configuration.getIndexTaskExecutor().execute(tasks);
+		}
 	}
 
 	@Override
@@ -157,9 +234,17 @@ public class DistributableSession extends DistributableImmutableSession<Session<
 
 	@Override
 	public void setMaxInactiveInterval(Duration duration) {
+		this.requireOpen();
 		this.reference.getReader().map(Session.METADATA).read(SessionMetaData.MAX_IDLE.composeUnary(Function.identity(), Function.of(duration)));
 	}
 
+	private void requireOpen() {
+		// Modifications following close, e.g. following response commit, would otherwise be silently discarded
+		if (this.closeTask.get() == null) {
+			throw new IllegalStateException(String.format("Session %s was already closed", this.getId()));
+		}
+	}
+
 	@Override
 	public void invalidate() {
 		// Spring does not call SessionRepository.save(...) for invalid sessions
@@ -168,6 +253,8 @@ public class DistributableSession extends DistributableImmutableSession<Session<
 		try {
 			this.reference.getReader().map(Session.REQUIRE_VALID).read(invalidSession -> {
 				try (Session<?> session = invalidSession) {
+					// Apply any pending index changes, so that these are removed by the destroy action
+					this.updateIndexes(session);
 					this.destroyAction.accept(session, SessionDestroyedEvent::new);
 					session.invalidate();
 				}
@@ -188,9 +275,10 @@ public class DistributableSession extends DistributableImmutableSession<Session<
 				this.reference.getReader().read(completeSession -> {
 					try (Session<Void> session = completeSession) {
 						if (session.isValid()) {
+							this.updateIndexes(session);
 							// According to §7.6 of the servlet specification:
 							// The session is considered to be accessed when a request that is part of the session is first handled by the servlet container.
-							session.getMetaData().setLastAccess(this.startTime, Instant.now());
+							this.accessRecorder.record(session.getMetaData(), this.startTime, Instant.now());
 						}
 					}
 				});
@@ -4,20 +4,40 @@
  */
 package org.wildfly.clustering.spring.session;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import jakarta.servlet.ServletRequest;
 
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.session.FindByIndexNameSessionRepository;
 import org.springframework.session.events.SessionCreatedEvent;
+import org.springframework.session.events.SessionDeletedEvent;
 import org.wildfly.clustering.cache.batch.Batch;
 import org.wildfly.clustering.function.BiConsumer;
 import org.wildfly.clustering.function.BiFunction;
+import org.wildfly.clustering.function.Consumer;
+import org.wildfly.clustering.function.Predicate;
 import org.wildfly.clustering.function.Supplier;
 import org.wildfly.clustering.server.util.Reference;
 import org.wildfly.clustering.session.ImmutableSession;
@@ -25,21 +45,37 @@ import org.wildfly.clustering.session.Session;
 import org.wildfly.clustering.session.SessionManager;
 import org.wildfly.clustering.session.user.User;
 import org.wildfly.clustering.session.user.UserManager;
+import org.wildfly.clustering.spring.context.SessionAccessRecorder;
+import org.wildfly.clustering.spring.context.SharedSessionRegistry;
 
 /**
  * A Spring Session repository facade for a {@link SessionManager}.
  * Additionally indexes sessions using a set of {@link UserManager} instances.
+ * Sessions referenced by read-only requests are served from an immutable session, and are only locked if modified, or if their last access must be recorded.
+ * If enabled, concurrent requests for the same session on this node share a single open session.
  * @author Paul Ferraro
  */
 public class DistributableSessionRepository implements FindByIndexNameSessionRepository<SpringSession>, DisposableBean {
-	// Handle redundant calls to findById(...)
-	private static final ThreadLocal<SpringSession> CURRENT_SESSION = new ThreadLocal<>();
+	/** The name of a request attribute which, if {@link Boolean#TRUE}, designates a request as only reading session state. */
+	public static final String READ_ONLY_REQUEST_ATTRIBUTE = DistributableSessionRepository.class.getName() + ".READ_ONLY";
 
 	private final SessionManager<Void> manager;
 	private final ApplicationEventPublisher publisher;
 	private final BiConsumer<ImmutableSession, BiFunction<Object, org.springframework.session.Session, ApplicationEvent>> destroyAction;
 	private final UserConfiguration indexing;
+	private final boolean lazyCreation;
+	private final Supplier<Optional<Duration>> defaultTimeout;
+	private final SessionAccessRecorder accessRecorder;
+	private final Predicate<ServletRequest> readOnly;
 	private final StampedLock lifecycleLock = new StampedLock();
+	private final Map<SpringSession, SessionRegistry> registries = new ConcurrentHashMap<>();
+	private final Map<String, BiConsumer<ImmutableSession, BiFunction<Object, org.springframework.session.Session, ApplicationEvent>>> excludingDestroyActions = new ConcurrentHashMap<>();
+	private final Function<String, BiConsumer<ImmutableSession, BiFunction<Object, org.springframework.session.Session, ApplicationEvent>>> excludingDestroyActionFactory;
+	private final SharedSessionRegistry sharedSessions;
+	private final Function<String, CompletionStage<Session<Void>>> finder;
+	private final AtomicLong lockWaitCount = new AtomicLong(0L);
+	private final AtomicLong totalLockWaitTime = new AtomicLong(0L);
+	private final AtomicLong maxLockWaitTime = new AtomicLong(0L);
 
 	/**
 	 * Create a session repository from the specified configuration.
@@ -49,7 +85,15 @@ public class DistributableSessionRepository implements FindByIndexNameSessionRep
 		this.manager = configuration.getSessionManager();
 		this.publisher = configuration.getEventPublisher();
 		this.destroyAction = configuration.getSessionDestroyAction();
+		this.excludingDestroyActionFactory = configuration::getSessionDestroyAction;
 		this.indexing = configuration.getUserConfiguration();
+		this.lazyCreation = configuration.isLazyCreation();
+		this.defaultTimeout = configuration::getDefaultMaxInactiveInterval;
+		this.accessRecorder = configuration.getSessionAccessRecorder();
+		Predicate<ServletRequest> readOnly = configuration.getReadOnlyRequestPredicate();
+		this.readOnly = request -> Boolean.TRUE.equals(request.getAttribute(READ_ONLY_REQUEST_ATTRIBUTE)) || readOnly.test(request);
+		this.sharedSessions = configuration.isSessionSharing() ? new SharedSessionRegistry(this.manager) : null;
+		this.finder = (this.sharedSessions != null) ? this.sharedSessions::findSessionAsync : this.manager::findSessionAsync;
 	}
 
 	@Override
@@ -63,53 +107,139 @@ public class DistributableSessionRepository implements FindByIndexNameSessionRep
 
 	@Override
 	public SpringSession createSession() {
-		DistributableSession session = this.getSession(this.manager.getIdentifierFactory().thenApply(this.manager::createSession));
+		Supplier<String> identifierFactory = this.manager.getIdentifierFactory();
+		if (this.lazyCreation) {
+			return this.register(closeTask -> new LazySession(identifierFactory, (id, creationTime) -> this.createSession(id, creationTime, closeTask), closeTask, this.defaultTimeout.get()));
+		}
+		return this.register(closeTask -> this.createSession(identifierFactory.get(), Instant.now(), closeTask));
+	}
+
+	private DistributableSession createSession(String id, Instant creationTime, Runnable closeTask) {
+		DistributableSession session = this.getSession(() -> DistributableSession.initialize(this.manager.createSessionAsync(id, creationTime).toCompletableFuture().join()), closeTask);
 		this.publisher.publishEvent(new SessionCreatedEvent(this, session));
-		CURRENT_SESSION.set(session);
 		return session;
 	}
 
 	@Override
 	public SpringSession findById(String id) {
-		// Spring session lifecycle is a mess - and may call findById(...) multiple times per request
-		// Handle redundant calls to findById(...) via thread local
-		SpringSession current = CURRENT_SESSION.get();
-		if ((current != null) && current.getId().equals(id)) {
+		// Spring session lifecycle is a mess - and may call findById(...) multiple times per request, potentially from different threads
+		// Handle redundant calls to findById(...) via the sessions already referenced by the current request
+		SpringSession current = SessionRegistry.findSession(id);
+		if (current != null) {
 			return current;
 		}
-		DistributableSession session = this.getSession(Supplier.of(id).thenApply(this.manager::findSession));
-		if (session != null) {
-			CURRENT_SESSION.set(session);
+		return this.findSession(id, SessionRegistry.current().matches(this.readOnly));
+	}
+
+	private SpringSession findSession(String id, boolean readOnly) {
+		if (readOnly) {
+			return this.register(closeTask -> this.getImmutableSession(id, closeTask));
 		}
-		return session;
+		return this.register(closeTask -> this.getSession(() -> this.lockSession(id), closeTask));
 	}
 
-	private DistributableSession getSession(Supplier<Session<Void>> factory) {
-		Runnable closeTask = this.getSessionCloseTask();
+	private Session<Void> lockSession(String id) {
+		long start = System.nanoTime();
 		try {
-			Session<Void> session = factory.get();
-			if ((session == null) || !session.isValid()) {
-				try (Session<Void> invalidSession = session) {
-					return null;
+			return this.finder.apply(id).toCompletableFuture().join();
+		} finally {
+			long waitTime = System.nanoTime() - start;
+			this.lockWaitCount.incrementAndGet();
+			this.totalLockWaitTime.addAndGet(waitTime);
+			this.maxLockWaitTime.accumulateAndGet(waitTime, Math::max);
+		}
+	}
+
+	/**
+	 * Returns the mean duration spent awaiting a mutable session, including the time spent awaiting its lock.
+	 * @return the mean lock wait time
+	 */
+	public Duration getMeanLockWaitTime() {
+		long count = this.lockWaitCount.get();
+		return (count > 0) ? Duration.ofNanos(this.totalLockWaitTime.get() / count) : Duration.ZERO;
+	}
+
+	/**
+	 * Returns the maximum duration spent awaiting a mutable session, including the time spent awaiting its lock.
+	 * @return the maximum lock wait time
+	 */
+	public Duration getMaxLockWaitTime() {
+		return Duration.ofNanos(this.maxLockWaitTime.get());
+	}
+
+	/**
+	 * Returns the registry of sessions shared among concurrent requests, exposing its statistics, if session sharing is enabled.
+	 * @return an optional shared session registry
+	 */
+	public Optional<SharedSessionRegistry> getSharedSessionRegistry() {
+		return Optional.ofNullable(this.sharedSessions);
+	}
+
+	private <S extends SpringSession> S register(Function<Runnable, S> factory) {
+		SessionRegistry registry = SessionRegistry.current();
+		AtomicReference<SpringSession> registeredSession = new AtomicReference<>();
+		Runnable unlockTask = this.getSessionCloseTask();
+		Runnable closeTask = new Runnable() {
+			@Override
+			public void run() {
+				try {
+					SpringSession session = registeredSession.getAndSet(null);
+					if (session != null) {
+						registry.remove(session);
+						DistributableSessionRepository.this.registries.remove(session);
+					}
 				} finally {
-					closeTask.run();
+					unlockTask.run();
 				}
 			}
-			return new DistributableSession(this.manager, session, closeTask, this.indexing, this.destroyAction);
+		};
+		try {
+			S session = factory.apply(closeTask);
+			if (session != null) {
+				registeredSession.setPlain(session);
+				registry.add(session);
+				this.registries.put(session, registry);
+			}
+			return session;
 		} catch (RuntimeException | Error e) {
 			closeTask.run();
 			throw e;
 		}
 	}
 
+	private DistributableSession getSession(Supplier<Session<Void>> factory, Runnable closeTask) {
+		return this.getSession(factory, closeTask, Optional.empty());
+	}
+
+	private DistributableSession getSession(Supplier<Session<Void>> factory, Runnable closeTask, Optional<Instant> startTime) {
+		Session<Void> session = factory.get();
+		if ((session == null) || !session.isValid()) {
+			try (Session<Void> invalidSession = session) {
+				return null;
+			} finally {
+				closeTask.run();
+			}
+		}
+		return startTime.isPresent() ? new DistributableSession(this.manager, session, closeTask, this.indexing, this.destroyAction, this.accessRecorder, startTime.get()) : new DistributableSession(this.manager, session, closeTask, this.indexing, this.destroyAction, this.accessRecorder);
+	}
+
+	private ReadOnlySession getImmutableSession(String id, Runnable closeTask) {
+		ImmutableSession session = this.manager.findImmutableSession(id);
+		if ((session == null) || !session.isValid()) {
+			closeTask.run();
+			return null;
+		}
+		// Upgraded session is closed by, and thus shares the close task of, its read-only session
+		return new ReadOnlySession(session, closeTask, this.accessRecorder, startTime -> this.getSession(() -> this.lockSession(id), () -> {}, Optional.of(startTime)));
+	}
+
 	@Override
 	public void deleteById(String id) {
 		try (SpringSession session = this.findById(id)) {
 			if (session != null) {
+				// N.B. A read-only session upgrades itself to a mutable session on invalidation
 				session.invalidate();
 			}
-		} finally {
-			CURRENT_SESSION.remove();
 		}
 	}
 
@@ -117,11 +247,16 @@ public class DistributableSessionRepository implements FindByIndexNameSessionRep
 	public void save(SpringSession session) {
 		// Spring session lifecycle is a mess - and may save session multiple times per request
 		// Ideally we would only close session on response commit - but SessionSessionRepository lacks that context
-		if (CURRENT_SESSION.get() != null) {
-			try {
+		SessionRegistry registry = this.registries.get(session);
+		// Ignore sessions that were already closed, or whose closing was deferred, e.g. by SessionCloseFilter
+		if ((registry != null) && !registry.isCloseDeferred()) {
+			if (registry.isAsyncStarted()) {
+				// Request processing will resume on some other thread, to which the current request may not be exposed, but which will reference the same session
+				// Defer closing of the sessions referenced by this request until the asynchronous request completes, so that each is looked up only once
+				registry.deferClose(Consumer.of());
+				registry.closeOnComplete();
+			} else {
 				session.close();
-			} finally {
-				CURRENT_SESSION.remove();
 			}
 		}
 	}
@@ -138,19 +273,125 @@ public class DistributableSessionRepository implements FindByIndexNameSessionRep
 				}
 			}
 		}
-		if (!sessions.isEmpty()) {
-			Map<String, SpringSession> result = new HashMap<>();
-			try (Batch batch = manager.getBatchFactory().get()) {
-				for (String sessionId : sessions.values()) {
-					ImmutableSession session = this.manager.findImmutableSession(sessionId);
-					if (session != null) {
-						result.put(sessionId, new DistributableImmutableSession<>(Reference.of(session)));
+		return !sessions.isEmpty() ? this.findImmutableSessions(sessions.values()) : Collections.emptyMap();
+	}
+
+	/**
+	 * Invalidates all sessions with the specified index value, e.g. all sessions of a given principal.
+	 * The identifiers of the indexed sessions are collected up front, after which each session is located, concurrently, as a mutable session and invalidated, triggering its destroy events.
+	 * Any such session already referenced by the current request is first closed, and is thereafter unusable by that request.
+	 * The index entry itself is removed only once, following the invalidation of all of its sessions.
+	 * @param indexName an index name
+	 * @param indexValue an index value
+	 */
+	public void deleteByIndexNameAndIndexValue(String indexName, String indexValue) {
+		UserManager<Void, Void, String, String> manager = this.indexing.getUserManagers().get(indexName);
+		if (manager == null) {
+			return;
+		}
+		Set<String> sessionIds = Set.of();
+		try (Batch batch = manager.getBatchFactory().get()) {
+			User<Void, Void, String, String> user = manager.findUser(indexValue);
+			if (user != null) {
+				sessionIds = Set.copyOf(user.getSessions().getSessions().values());
+			}
+		}
+		if (!sessionIds.isEmpty()) {
+			// Index entry is removed once, below, thus exclude it from the destroy action of each session
+			BiConsumer<ImmutableSession, BiFunction<Object, org.springframework.session.Session, ApplicationEvent>> destroyAction = this.excludingDestroyActions.computeIfAbsent(indexName, this.excludingDestroyActionFactory);
+			Runnable closeTask = this.getSessionCloseTask();
+			try {
+				for (String sessionId : sessionIds) {
+					SpringSession current = SessionRegistry.findSession(sessionId);
+					if (current != null) {
+						// Release any session already referenced by the current request, whether read-only or mutable, so that it can be looked up as a mutable session below
+						current.close();
+					}
+				}
+				// Issue all lookups up front
+				List<CompletableFuture<Session<Void>>> futures = new ArrayList<>(sessionIds.size());
+				for (String sessionId : sessionIds) {
+					futures.add(this.finder.apply(sessionId).toCompletableFuture());
+				}
+				RuntimeException exception = null;
+				for (CompletableFuture<Session<Void>> future : futures) {
+					try (Session<Void> session = future.join()) {
+						if ((session != null) && session.isValid()) {
+							destroyAction.accept(session, SessionDeletedEvent::new);
+							session.invalidate();
+						}
+					} catch (RuntimeException e) {
+						// Ensure remaining sessions are closed
+						if (exception == null) {
+							exception = e;
+						} else {
+							exception.addSuppressed(e);
+						}
 					}
 				}
+				if (exception != null) {
+					// Retain index, since some sessions may remain valid
+					throw exception;
+				}
+			} finally {
+				closeTask.run();
+			}
+		}
+		try (Batch batch = manager.getBatchFactory().get()) {
+			User<Void, Void, String, String> user = manager.findUser(indexValue);
+			if (user != null) {
+				user.invalidate();
+			}
+		}
+	}
+
+	/**
+	 * Returns a stream of the sessions with the specified index value, ordered by session identifier.
+	 * Unlike {@link #findByIndexNameAndIndexValue(String, String)}, sessions are loaded lazily, in chunks of the specified size, as the stream is consumed.
+	 * @param indexName an index name
+	 * @param indexValue an index value
+	 * @param chunkSize the maximum number of sessions to load concurrently
+	 * @return a stream of sessions
+	 */
+	public Stream<SpringSession> streamByIndexNameAndIndexValue(String indexName, String indexValue, int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException(Integer.toString(chunkSize));
+		}
+		List<String> sessionIds = List.of();
+		UserManager<Void, Void, String, String> manager = this.indexing.getUserManagers().get(indexName);
+		if (manager != null) {
+			try (Batch batch = manager.getBatchFactory().get()) {
+				User<Void, Void, String, String> sso = manager.findUser(indexValue);
+				if (sso != null) {
+					sessionIds = sso.getSessions().getSessions().values().stream().sorted().toList();
+				}
+			}
+		}
+		List<String> ids = sessionIds;
+		int chunks = (ids.size() + chunkSize - 1) / chunkSize;
+		return IntStream.range(0, chunks)
+				.mapToObj(chunk -> ids.subList(chunk * chunkSize, Math.min((chunk + 1) * chunkSize, ids.size())))
+				.flatMap(chunk -> {
+					Map<String, SpringSession> sessions = this.findImmutableSessions(chunk);
+					// Retain identifier order, omitting sessions that no longer exist
+					return chunk.stream().map(sessions::get).filter(Objects::nonNull);
+				});
+	}
+
+	private Map<String, SpringSession> findImmutableSessions(Collection<String> sessionIds) {
+		// Issue all lookups up front, so that latency is bounded by the slowest lookup, rather than the sum of all lookups
+		Map<String, CompletableFuture<ImmutableSession>> futures = new HashMap<>();
+		for (String sessionId : sessionIds) {
+			futures.put(sessionId, this.manager.findImmutableSessionAsync(sessionId).toCompletableFuture());
+		}
+		Map<String, SpringSession> result = new HashMap<>();
+		for (Map.Entry<String, CompletableFuture<ImmutableSession>> entry : futures.entrySet()) {
+			ImmutableSession session = entry.getValue().join();
+			if (session != null) {
+				result.put(entry.getKey(), new DistributableImmutableSession<>(Reference.of(session)));
 			}
-			return result;
 		}
-		return Collections.emptyMap();
+		return result;
 	}
 
 	private Runnable getSessionCloseTask() {
@@ -4,13 +4,20 @@
  */
 package org.wildfly.clustering.spring.session;
 
+import java.time.Duration;
+import java.util.Optional;
+
+import jakarta.servlet.ServletRequest;
+
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.session.Session;
 import org.wildfly.clustering.function.BiConsumer;
 import org.wildfly.clustering.function.BiFunction;
+import org.wildfly.clustering.function.Predicate;
 import org.wildfly.clustering.session.ImmutableSession;
 import org.wildfly.clustering.session.SessionManager;
+import org.wildfly.clustering.spring.context.SessionAccessRecorder;
 
 /**
  * Encapsulates the configuration of a session repository.
@@ -35,9 +42,66 @@ public interface DistributableSessionRepositoryConfiguration {
 	 */
 	BiConsumer<ImmutableSession, BiFunction<Object, Session, ApplicationEvent>> getSessionDestroyAction();
 
+	/**
+	 * Returns the action to perform on destroy of a session whose index of the specified name is removed separately.
+	 * By default, returns the {@link #getSessionDestroyAction() default action}, which redundantly removes the specified index.
+	 * @param excludedIndexName the name of the index not removed by the returned action
+	 * @return the action to perform on session destroy
+	 */
+	default BiConsumer<ImmutableSession, BiFunction<Object, Session, ApplicationEvent>> getSessionDestroyAction(String excludedIndexName) {
+		return this.getSessionDestroyAction();
+	}
+
 	/**
 	 * Returns the user configuration.
 	 * @return the user configuration.
 	 */
 	UserConfiguration getUserConfiguration();
+
+	/**
+	 * Indicates whether the creation of a session should be deferred until its first attribute is written.
+	 * Disabled by default.
+	 * @return true, if session creation should be deferred, false otherwise.
+	 */
+	default boolean isLazyCreation() {
+		return false;
+	}
+
+	/**
+	 * Returns the default timeout of a newly created session, if any.
+	 * By default, a newly created session uses the default timeout of the session manager.
+	 * @return an optional default session timeout
+	 */
+	default Optional<Duration> getDefaultMaxInactiveInterval() {
+		return Optional.empty();
+	}
+
+	/**
+	 * Returns the recorder of session access.
+	 * By default, every session access is recorded.
+	 * @return the recorder of session access.
+	 */
+	default SessionAccessRecorder getSessionAccessRecorder() {
+		return new SessionAccessRecorder(Duration.ZERO);
+	}
+
+	/**
+	 * Returns a predicate identifying requests that only read session state.
+	 * Sessions referenced by such requests are not locked unless modified, and are only written back to the session manager if modified, or if their last access must be recorded.
+	 * By default, no request is considered read-only, unless designated as such via {@link DistributableSessionRepository#READ_ONLY_REQUEST_ATTRIBUTE}.
+	 * @return a predicate identifying read-only requests
+	 */
+	default Predicate<ServletRequest> getReadOnlyRequestPredicate() {
+		return request -> false;
+	}
+
+	/**
+	 * Indicates whether concurrent requests for the same session on this node should share a single open session.
+	 * If enabled, such requests do not serialize on the lock of the session, and thus forfeit per-request isolation, as described by {@link org.wildfly.clustering.spring.context.SharedSessionRegistry}.
+	 * Disabled by default.
+	 * @return true, if concurrent requests should share a session, false otherwise.
+	 */
+	default boolean isSessionSharing() {
+		return false;
+	}
 }
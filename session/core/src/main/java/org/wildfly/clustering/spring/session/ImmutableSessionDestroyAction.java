@@ -4,7 +4,13 @@
  */
 package org.wildfly.clustering.spring.session;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.http.HttpSession;
@@ -14,6 +20,7 @@ import jakarta.servlet.http.HttpSessionBindingListener;
 
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.session.IndexResolver;
 import org.springframework.session.Session;
 import org.wildfly.clustering.cache.batch.Batch;
 import org.wildfly.clustering.function.BiConsumer;
@@ -57,33 +64,85 @@ public class ImmutableSessionDestroyAction<C> implements BiConsumer<ImmutableSes
 		this.indexing = indexing;
 	}
 
+	/**
+	 * Returns a session destroy action that does not remove the index with the specified name, e.g. if removed separately.
+	 * @param indexName an index name
+	 * @return a session destroy action
+	 */
+	public ImmutableSessionDestroyAction<C> excluding(String indexName) {
+		UserConfiguration indexing = this.indexing;
+		Map<String, UserManager<Void, Void, String, String>> managers = new TreeMap<>(indexing.getUserManagers());
+		managers.remove(indexName);
+		Map<String, UserManager<Void, Void, String, String>> userManagers = Collections.unmodifiableMap(managers);
+		return new ImmutableSessionDestroyAction<>(this.manager, this.publisher, this.context, new UserConfiguration() {
+			@Override
+			public Map<String, UserManager<Void, Void, String, String>> getUserManagers() {
+				return userManagers;
+			}
+
+			@Override
+			public IndexResolver<Session> getIndexResolver() {
+				return indexing.getIndexResolver();
+			}
+
+			@Override
+			public Optional<Set<String>> getIndexedAttributeNames() {
+				return indexing.getIndexedAttributeNames();
+			}
+
+			@Override
+			public IndexTaskExecutor getIndexTaskExecutor() {
+				return indexing.getIndexTaskExecutor();
+			}
+		});
+	}
+
 	@Override
 	public void accept(ImmutableSession session, BiFunction<Object, Session, ApplicationEvent> eventFactory) {
-		SpringSession immutableSession = new DistributableImmutableSession<>(Reference.of(session));
+		DistributableImmutableSession<ImmutableSession> immutableSession = new DistributableImmutableSession<>(Reference.of(session));
 		ApplicationEvent event = eventFactory.apply(this, immutableSession);
 		this.publisher.publishEvent(event);
 		HttpSession httpSession = this.provider.getSession(this.manager, session, this.context);
-		for (Map.Entry<String, Object> entry : session.getAttributes().entrySet()) {
-			if (entry.getValue() instanceof HttpSessionBindingListener listener) {
-				try {
-					listener.valueUnbound(new HttpSessionBindingEvent(httpSession, entry.getKey(), listener));
-				} catch (Throwable e) {
-					this.context.log(e.getMessage(), e);
-				}
+		Map<String, Object> attributes = session.getAttributes();
+		// Only read those attributes known to contain binding listeners
+		@SuppressWarnings("unchecked")
+		Set<String> listenerNames = (Set<String>) attributes.get(DistributableImmutableSession.BINDING_LISTENER_ATTRIBUTE_NAMES);
+		if (listenerNames != null) {
+			for (String name : listenerNames) {
+				this.unbound(httpSession, name, attributes.get(name));
+			}
+		} else {
+			// Session does not track its binding listeners, e.g. if created by a prior version, thus scan every attribute
+			for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+				this.unbound(httpSession, entry.getKey(), entry.getValue());
 			}
 		}
 
 		// Remove any associated indexes
-		Map<String, String> indexes = this.indexing.getIndexResolver().resolveIndexesFor(immutableSession);
+		Map<String, String> indexes = immutableSession.getPersistentIndexes(this.indexing.getIndexResolver());
+		List<Runnable> tasks = new ArrayList<>(indexes.size());
 		for (Map.Entry<String, String> entry : indexes.entrySet()) {
 			UserManager<Void, Void, String, String> manager = this.indexing.getUserManagers().get(entry.getKey());
 			if (manager != null) {
-				try (Batch batch = manager.getBatchFactory().get()) {
-					User<Void, Void, String, String> user = manager.findUser(entry.getValue());
-					if (user != null) {
-						user.invalidate();
+				tasks.add(() -> {
+					try (Batch batch = manager.getBatchFactory().get()) {
+						User<Void, Void, String, String> user = manager.findUser(entry.getValue());
+						if (user != null) {
+							user.invalidate();
+						}
 					}
-				}
+				});
+			}
+		}
+		this.indexing.getIndexTaskExecutor().execute(tasks);
+	}
+
+	private void unbound(HttpSession session, String name, Object value) {
+		if (value instanceof HttpSessionBindingListener listener) {
+			try {
+				listener.valueUnbound(new HttpSessionBindingEvent(session, name, listener));
+			} catch (Throwable e) {
+				this.context.log(e.getMessage(), e);
 			}
 		}
 	}
@@ -0,0 +1,93 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.spring.session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Executes index maintenance tasks, e.g. one per {@link org.wildfly.clustering.session.user.UserManager}, concurrently.
+ * Each task is expected to use its own batch, thus latency is bounded by the slowest task, rather than by the sum of all tasks.
+ * Concurrent execution is opt-in, i.e. tasks run sequentially via {@link #CALLER_RUNS} unless a blocking executor is configured.
+ * @author Paul Ferraro
+ */
+public class IndexTaskExecutor {
+	/** Executes all tasks sequentially on the calling thread. */
+	public static final IndexTaskExecutor CALLER_RUNS = new IndexTaskExecutor(Runnable::run);
+
+	private final Executor executor;
+
+	/**
+	 * Creates an index task executor.
+	 * Since index maintenance tasks block, the specified executor must permit blocking tasks.
+	 * @param executor the executor used to run all but the first of a set of tasks
+	 */
+	public IndexTaskExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Runs the specified tasks concurrently, returning once all have completed.
+	 * The first task runs on the calling thread, thus a single task incurs no thread hand-off.
+	 * Any task rejected by the executor also runs on the calling thread.
+	 * @param tasks a collection of tasks
+	 * @throws RuntimeException the exception thrown by the first failed task, to which the exceptions of any other failed tasks are added as suppressed exceptions
+	 */
+	public void execute(Collection<Runnable> tasks) {
+		Iterator<Runnable> iterator = tasks.iterator();
+		if (!iterator.hasNext()) {
+			return;
+		}
+		Runnable first = iterator.next();
+		if (!iterator.hasNext()) {
+			first.run();
+			return;
+		}
+		List<CompletableFuture<Void>> futures = new ArrayList<>(tasks.size() - 1);
+		while (iterator.hasNext()) {
+			Runnable task = iterator.next();
+			try {
+				futures.add(CompletableFuture.runAsync(task, this.executor));
+			} catch (RejectedExecutionException e) {
+				futures.add(CompletableFuture.runAsync(task, Runnable::run));
+			}
+		}
+		Throwable failure = null;
+		try {
+			first.run();
+		} catch (RuntimeException | Error e) {
+			failure = e;
+		}
+		// Await all tasks, regardless of failure
+		for (CompletableFuture<Void> future : futures) {
+			try {
+				future.join();
+			} catch (CompletionException | CancellationException e) {
+				Throwable cause = ((e instanceof CompletionException) && (e.getCause() != null)) ? e.getCause() : e;
+				if (failure == null) {
+					failure = cause;
+				} else {
+					failure.addSuppressed(cause);
+				}
+			}
+		}
+		if (failure instanceof RuntimeException exception) {
+			throw exception;
+		}
+		if (failure instanceof Error error) {
+			throw error;
+		}
+		if (failure != null) {
+			throw new CompletionException(failure);
+		}
+	}
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.spring.session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * A Spring Session facade for a distributable session that is not created until its first attribute is written.
+ * @author Paul Ferraro
+ */
+public class LazySession implements SpringSession {
+	private final AtomicReference<String> id;
+	private final Instant creationTime = Instant.now();
+	private final AtomicReference<Optional<Duration>> timeout = new AtomicReference<>(Optional.empty());
+	private final Optional<Duration> defaultTimeout;
+	private final AtomicReference<SpringSession> session = new AtomicReference<>();
+	private final AtomicBoolean valid = new AtomicBoolean(true);
+	private final Supplier<String> identifierFactory;
+	private final BiFunction<String, Instant, SpringSession> sessionFactory;
+	private final AtomicReference<Runnable> closeTask;
+
+	/**
+	 * Creates a new lazy session.
+	 * @param identifierFactory a session identifier factory
+	 * @param sessionFactory a factory for creating a distributable session from a session identifier and creation time
+	 * @param closeTask a task to invoke on session close, if this session was never created
+	 * @param defaultTimeout the default timeout of a created session, if any
+	 */
+	public LazySession(Supplier<String> identifierFactory, BiFunction<String, Instant, SpringSession> sessionFactory, Runnable closeTask, Optional<Duration> defaultTimeout) {
+		this.id = new AtomicReference<>(identifierFactory.get());
+		this.defaultTimeout = defaultTimeout;
+		this.identifierFactory = identifierFactory;
+		this.sessionFactory = sessionFactory;
+		this.closeTask = new AtomicReference<>(closeTask);
+	}
+
+	private SpringSession getSession() {
+		SpringSession session = this.session.get();
+		if (session == null) {
+			synchronized (this) {
+				session = this.session.get();
+				if (session == null) {
+					// Session cannot be created following invalidation or close
+					if (!this.valid.get() || (this.closeTask.get() == null)) {
+						throw new IllegalStateException();
+					}
+					session = this.sessionFactory.apply(this.id.get(), this.creationTime);
+					if (session == null) {
+						throw new IllegalStateException();
+					}
+					this.timeout.get().ifPresent(session::setMaxInactiveInterval);
+					this.session.set(session);
+				}
+			}
+		}
+		return session;
+	}
+
+	@Override
+	public String getId() {
+		SpringSession session = this.session.get();
+		return (session != null) ? session.getId() : this.id.get();
+	}
+
+	@Override
+	public String changeSessionId() {
+		SpringSession session = this.session.get();
+		if (session != null) {
+			return session.changeSessionId();
+		}
+		String id = this.identifierFactory.get();
+		this.id.set(id);
+		return id;
+	}
+
+	@Override
+	public <T> T getAttribute(String attributeName) {
+		SpringSession session = this.session.get();
+		return (session != null) ? session.getAttribute(attributeName) : null;
+	}
+
+	@Override
+	public Set<String> getAttributeNames() {
+		SpringSession session = this.session.get();
+		return (session != null) ? session.getAttributeNames() : Set.of();
+	}
+
+	@Override
+	public void setAttribute(String attributeName, Object attributeValue) {
+		// Removing a non-existent attribute does not require the creation of a session
+		if ((attributeValue != null) || (this.session.get() != null)) {
+			this.getSession().setAttribute(attributeName, attributeValue);
+		}
+	}
+
+	@Override
+	public void removeAttribute(String attributeName) {
+		this.setAttribute(attributeName, null);
+	}
+
+	@Override
+	public Instant getCreationTime() {
+		SpringSession session = this.session.get();
+		return (session != null) ? session.getCreationTime() : this.creationTime;
+	}
+
+	@Override
+	public void setLastAccessedTime(Instant lastAccessedTime) {
+		// Last access time of a distributable session is recorded on close
+	}
+
+	@Override
+	public Instant getLastAccessedTime() {
+		SpringSession session = this.session.get();
+		return (session != null) ? session.getLastAccessedTime() : this.creationTime;
+	}
+
+	@Override
+	public void setMaxInactiveInterval(Duration interval) {
+		SpringSession session = this.session.get();
+		if (session != null) {
+			session.setMaxInactiveInterval(interval);
+		} else {
+			this.timeout.set(Optional.ofNullable(interval));
+		}
+	}
+
+	@Override
+	public Duration getMaxInactiveInterval() {
+		SpringSession session = this.session.get();
+		// Prior to creation, report the timeout that the session will have once created
+		return (session != null) ? session.getMaxInactiveInterval() : this.timeout.get().or(() -> this.defaultTimeout).orElse(Duration.ZERO);
+	}
+
+	@Override
+	public boolean isExpired() {
+		SpringSession session = this.session.get();
+		return (session != null) && session.isExpired();
+	}
+
+	@Override
+	public boolean isNew() {
+		SpringSession session = this.session.get();
+		return (session == null) || session.isNew();
+	}
+
+	@Override
+	public void invalidate() {
+		SpringSession session = this.session.get();
+		if (session != null) {
+			session.invalidate();
+		} else if (this.valid.compareAndSet(true, false)) {
+			this.close();
+		}
+	}
+
+	@Override
+	public void close() {
+		SpringSession session = this.session.get();
+		if (session != null) {
+			session.close();
+		} else {
+			// Session was never created, just run close task
+			Runnable closeTask = this.closeTask.getAndSet(null);
+			if (closeTask != null) {
+				closeTask.run();
+			}
+		}
+	}
+}
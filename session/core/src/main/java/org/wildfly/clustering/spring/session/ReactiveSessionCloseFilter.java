@@ -0,0 +1,88 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.spring.session;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * A web filter that closes any session located by a {@link DistributableReactiveSessionRepository} on behalf of an exchange, but not saved or deleted by that exchange, once the exchange completes, fails, or is cancelled.
+ * Spring Session does not save sessions that were never started or that expired, nor the sessions of aborted exchanges, whose locks would otherwise never be released.
+ * Since session close blocks, sessions are closed via the specified scheduler.
+ * This filter must precede any filter that accesses the session of an exchange.
+ * @author Paul Ferraro
+ */
+public class ReactiveSessionCloseFilter implements WebFilter, Ordered {
+	private static final System.Logger LOGGER = System.getLogger(ReactiveSessionCloseFilter.class.getPackageName());
+	private static final String SESSIONS_KEY = ReactiveSessionCloseFilter.class.getName();
+
+	private final Scheduler scheduler;
+	private final AtomicLong sessionCount = new AtomicLong(0L);
+
+	/**
+	 * Creates a session close filter.
+	 * @param scheduler a scheduler for blocking session operations
+	 */
+	public ReactiveSessionCloseFilter(Scheduler scheduler) {
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Returns the sessions located on behalf of the exchange associated with the specified subscriber context, if any.
+	 * @param context a subscriber context
+	 * @return an optional set of sessions
+	 */
+	static Optional<Set<SpringSession>> getSessions(ContextView context) {
+		return context.getOrEmpty(SESSIONS_KEY);
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		return Mono.usingWhen(Mono.fromSupplier(ConcurrentHashMap::<SpringSession>newKeySet), sessions -> chain.filter(exchange).contextWrite(Context.of(SESSIONS_KEY, sessions)), this::close, (sessions, exception) -> this.close(sessions), this::close);
+	}
+
+	private Mono<Void> close(Set<SpringSession> sessions) {
+		// Avoid hand-off if the exchange already released its sessions
+		if (sessions.isEmpty()) {
+			return Mono.empty();
+		}
+		return Mono.<Void>fromRunnable(() -> {
+			for (SpringSession session : List.copyOf(sessions)) {
+				try {
+					session.close();
+					this.sessionCount.incrementAndGet();
+				} catch (RuntimeException | Error e) {
+					LOGGER.log(System.Logger.Level.WARNING, e.getLocalizedMessage(), e);
+				}
+			}
+		}).subscribeOn(this.scheduler);
+	}
+
+	/**
+	 * Returns the number of sessions closed by this filter, i.e. that were neither saved nor deleted by their exchange.
+	 * @return the number of sessions closed by this filter.
+	 */
+	public long getSessionCount() {
+		return this.sessionCount.get();
+	}
+}
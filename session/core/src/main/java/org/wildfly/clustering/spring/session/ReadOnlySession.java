@@ -0,0 +1,185 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.spring.session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.wildfly.clustering.server.util.Reference;
+import org.wildfly.clustering.session.ImmutableSession;
+import org.wildfly.clustering.spring.context.SessionAccessRecorder;
+
+/**
+ * A Spring Session facade for a session referenced by a read-only request.
+ * Session state is read from an immutable session, which is neither locked nor written back to the session manager.
+ * Any modification of the session, e.g. writing an attribute, changing its identifier, or invalidating it, upgrades this facade to a mutable, i.e. locked, session, to which all subsequent operations are delegated.
+ * On close, the last access of a session that was never upgraded is only recorded, via a briefly held mutable session, if required by the configured {@link SessionAccessRecorder}.
+ * @author Paul Ferraro
+ */
+public class ReadOnlySession implements SpringSession {
+
+	private final SpringSession immutableSession;
+	private final ImmutableSession session;
+	private final Instant startTime;
+	private final SessionAccessRecorder accessRecorder;
+	private final Function<Instant, SpringSession> upgrader;
+	private final AtomicReference<SpringSession> mutableSession = new AtomicReference<>();
+	private final AtomicReference<Runnable> closeTask;
+
+	/**
+	 * Creates a Spring Session facade for a session referenced by a read-only request.
+	 * @param session an immutable session
+	 * @param closeTask a task to invoke on session close
+	 * @param accessRecorder a recorder of session access
+	 * @param upgrader a factory for a mutable session for this session, given the start time of the current access, returning null if this session no longer exists.
+	 */
+	public ReadOnlySession(ImmutableSession session, Runnable closeTask, SessionAccessRecorder accessRecorder, Function<Instant, SpringSession> upgrader) {
+		this.immutableSession = new DistributableImmutableSession<>(Reference.of(session));
+		this.session = session;
+		this.startTime = session.getMetaData().getLastAccessTime().isEmpty() ? session.getMetaData().getCreationTime() : Instant.now();
+		this.accessRecorder = accessRecorder;
+		this.upgrader = upgrader;
+		this.closeTask = new AtomicReference<>(closeTask);
+	}
+
+	/**
+	 * Indicates whether this session was upgraded to a mutable session.
+	 * @return true, if this session was upgraded, false otherwise.
+	 */
+	public boolean isUpgraded() {
+		return this.mutableSession.get() != null;
+	}
+
+	private SpringSession getSession() {
+		SpringSession session = this.mutableSession.get();
+		return (session != null) ? session : this.immutableSession;
+	}
+
+	private SpringSession getMutableSession() {
+		SpringSession session = this.mutableSession.get();
+		if (session == null) {
+			synchronized (this) {
+				session = this.mutableSession.get();
+				if (session == null) {
+					// Session cannot be upgraded following close
+					if (this.closeTask.get() == null) {
+						throw new IllegalStateException(this.session.getId());
+					}
+					session = this.upgrader.apply(this.startTime);
+					if (session == null) {
+						// Session was invalidated or expired by a concurrent request
+						throw new IllegalStateException(this.session.getId());
+					}
+					this.mutableSession.set(session);
+				}
+			}
+		}
+		return session;
+	}
+
+	@Override
+	public String getId() {
+		return this.getSession().getId();
+	}
+
+	@Override
+	public String changeSessionId() {
+		return this.getMutableSession().changeSessionId();
+	}
+
+	@Override
+	public <T> T getAttribute(String attributeName) {
+		return this.getSession().getAttribute(attributeName);
+	}
+
+	@Override
+	public Set<String> getAttributeNames() {
+		return this.getSession().getAttributeNames();
+	}
+
+	@Override
+	public void setAttribute(String attributeName, Object attributeValue) {
+		// Removing a non-existent attribute does not require a mutable session
+		if ((attributeValue != null) || this.isUpgraded() || (this.immutableSession.getAttribute(attributeName) != null)) {
+			this.getMutableSession().setAttribute(attributeName, attributeValue);
+		}
+	}
+
+	@Override
+	public void removeAttribute(String attributeName) {
+		this.setAttribute(attributeName, null);
+	}
+
+	@Override
+	public Instant getCreationTime() {
+		return this.getSession().getCreationTime();
+	}
+
+	@Override
+	public void setLastAccessedTime(Instant lastAccessedTime) {
+		// Last access time of a distributable session is recorded on close
+	}
+
+	@Override
+	public Instant getLastAccessedTime() {
+		return this.getSession().getLastAccessedTime();
+	}
+
+	@Override
+	public void setMaxInactiveInterval(Duration interval) {
+		if (this.isUpgraded() || !interval.equals(this.immutableSession.getMaxInactiveInterval())) {
+			this.getMutableSession().setMaxInactiveInterval(interval);
+		}
+	}
+
+	@Override
+	public Duration getMaxInactiveInterval() {
+		return this.getSession().getMaxInactiveInterval();
+	}
+
+	@Override
+	public boolean isExpired() {
+		return this.getSession().isExpired();
+	}
+
+	@Override
+	public boolean isNew() {
+		return this.getSession().isNew();
+	}
+
+	@Override
+	public void invalidate() {
+		try {
+			this.getMutableSession().invalidate();
+		} finally {
+			this.close();
+		}
+	}
+
+	@Override
+	public void close() {
+		Runnable closeTask = this.closeTask.getAndSet(null);
+		if (closeTask != null) {
+			try {
+				SpringSession session = this.mutableSession.get();
+				if (session != null) {
+					session.close();
+				} else if (this.accessRecorder.isRecordRequired(this.session.getMetaData(), Instant.now())) {
+					// Record last access via a mutable session, so that this session does not expire prematurely
+					SpringSession mutableSession = this.upgrader.apply(this.startTime);
+					// Session may have been invalidated or expired by a concurrent request
+					if (mutableSession != null) {
+						mutableSession.close();
+					}
+				}
+			} finally {
+				closeTask.run();
+			}
+		}
+	}
+}
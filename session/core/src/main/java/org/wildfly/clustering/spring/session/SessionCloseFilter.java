@@ -0,0 +1,255 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.spring.session;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * A servlet filter that closes the distributable sessions referenced by each dispatch of a request exactly once, either when the response is committed, or, failing that, when the dispatch completes.
+ * Closing sessions prior to response commit releases them to concurrent requests for the same session as early as possible, and ensures that their state is visible to any subsequent request from the same client.
+ * Any intervening {@link org.springframework.session.SessionRepository#save(org.springframework.session.Session)} invocations made by Spring Session are ignored.
+ * Commits triggered by the container, e.g. on buffer overflow, or once the declared content length was written, are detected following each write to the response.
+ * Once closed, a session rejects any further modification by the current dispatch with an {@link IllegalStateException}, rather than silently discarding it.
+ * This filter must be mapped to the same requests as Spring Session's {@link org.springframework.session.web.http.SessionRepositoryFilter}.
+ * @author Paul Ferraro
+ */
+public class SessionCloseFilter extends OncePerRequestFilter {
+	private static final System.Logger LOGGER = System.getLogger(SessionCloseFilter.class.getPackageName());
+
+	private final LongAdder sessions = new LongAdder();
+	private final LongAdder totalHoldTime = new LongAdder();
+	private final AtomicLong maxHoldTime = new AtomicLong(0L);
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+		SessionRegistry registry = SessionRegistry.bind(request);
+		registry.deferClose(this::recordHoldTime);
+		try {
+			chain.doFilter(request, new CommitAwareResponse(response, registry::close));
+		} finally {
+			try {
+				if (request.isAsyncStarted()) {
+					// Request processing will resume on some other thread, which will need to look up its sessions again
+					registry.closeOnComplete();
+				}
+				// Release sessions at the end of each dispatch, so that their locks are not held for the duration of an asynchronous request
+				registry.close();
+			} finally {
+				// Subsequent dispatches of this request will defer closing anew
+				registry.cancelDeferredClose();
+				registry.unbind();
+			}
+		}
+	}
+
+	@Override
+	protected boolean shouldNotFilterAsyncDispatch() {
+		// Sessions referenced by an asynchronous dispatch must also be closed at the end of that dispatch
+		return false;
+	}
+
+	private void recordHoldTime(Duration duration) {
+		long nanos = duration.toNanos();
+		this.sessions.increment();
+		this.totalHoldTime.add(nanos);
+		this.maxHoldTime.accumulateAndGet(nanos, Math::max);
+		LOGGER.log(System.Logger.Level.TRACE, "Session held for {0}", duration);
+	}
+
+	/**
+	 * Returns the number of sessions closed by this filter.
+	 * @return the number of sessions closed by this filter.
+	 */
+	public long getSessionCount() {
+		return this.sessions.sum();
+	}
+
+	/**
+	 * Returns the cumulative duration for which sessions closed by this filter were held by their requests.
+	 * @return the cumulative session hold time
+	 */
+	public Duration getTotalHoldTime() {
+		return Duration.ofNanos(this.totalHoldTime.sum());
+	}
+
+	/**
+	 * Returns the mean duration for which sessions closed by this filter were held by their requests.
+	 * @return the mean session hold time
+	 */
+	public Duration getMeanHoldTime() {
+		long sessions = this.sessions.sum();
+		return (sessions > 0) ? Duration.ofNanos(this.totalHoldTime.sum() / sessions) : Duration.ZERO;
+	}
+
+	/**
+	 * Returns the maximum duration for which a session closed by this filter was held by its request.
+	 * @return the maximum session hold time
+	 */
+	public Duration getMaxHoldTime() {
+		return Duration.ofNanos(this.maxHoldTime.get());
+	}
+
+	private static class CommitAwareResponse extends HttpServletResponseWrapper {
+		private final AtomicBoolean committed = new AtomicBoolean(false);
+		private final Runnable commitTask;
+		private ServletOutputStream output;
+		private PrintWriter writer;
+
+		CommitAwareResponse(HttpServletResponse response, Runnable commitTask) {
+			super(response);
+			this.commitTask = commitTask;
+		}
+
+		void commit() {
+			if (this.committed.compareAndSet(false, true)) {
+				this.commitTask.run();
+			}
+		}
+
+		void commitIfCommitted() {
+			// Detect commits triggered by the container, e.g. on buffer overflow, or once the declared content length was written
+			if (!this.committed.get() && this.getResponse().isCommitted()) {
+				this.commit();
+			}
+		}
+
+		@Override
+		public void sendError(int status) throws IOException {
+			this.commit();
+			super.sendError(status);
+		}
+
+		@Override
+		public void sendError(int status, String message) throws IOException {
+			this.commit();
+			super.sendError(status, message);
+		}
+
+		@Override
+		public void sendRedirect(String location) throws IOException {
+			this.commit();
+			super.sendRedirect(location);
+		}
+
+		@Override
+		public void sendRedirect(String location, int status, boolean clearBuffer) throws IOException {
+			this.commit();
+			super.sendRedirect(location, status, clearBuffer);
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			this.commit();
+			super.flushBuffer();
+		}
+
+		@Override
+		public synchronized ServletOutputStream getOutputStream() throws IOException {
+			if (this.output == null) {
+				this.output = new CommitAwareOutputStream(super.getOutputStream(), this::commit, this::commitIfCommitted);
+			}
+			return this.output;
+		}
+
+		@Override
+		public synchronized PrintWriter getWriter() throws IOException {
+			if (this.writer == null) {
+				this.writer = new PrintWriter(super.getWriter()) {
+					@Override
+					public void write(int c) {
+						super.write(c);
+						CommitAwareResponse.this.commitIfCommitted();
+					}
+
+					@Override
+					public void write(char[] chars, int offset, int length) {
+						super.write(chars, offset, length);
+						CommitAwareResponse.this.commitIfCommitted();
+					}
+
+					@Override
+					public void write(String value, int offset, int length) {
+						super.write(value, offset, length);
+						CommitAwareResponse.this.commitIfCommitted();
+					}
+
+					@Override
+					public void flush() {
+						CommitAwareResponse.this.commit();
+						super.flush();
+					}
+
+					@Override
+					public void close() {
+						CommitAwareResponse.this.commit();
+						super.close();
+					}
+				};
+			}
+			return this.writer;
+		}
+	}
+
+	private static class CommitAwareOutputStream extends ServletOutputStream {
+		private final ServletOutputStream output;
+		private final Runnable commitTask;
+		private final Runnable commitCheck;
+
+		CommitAwareOutputStream(ServletOutputStream output, Runnable commitTask, Runnable commitCheck) {
+			this.output = output;
+			this.commitTask = commitTask;
+			this.commitCheck = commitCheck;
+		}
+
+		@Override
+		public boolean isReady() {
+			return this.output.isReady();
+		}
+
+		@Override
+		public void setWriteListener(WriteListener listener) {
+			this.output.setWriteListener(listener);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			this.output.write(b);
+			this.commitCheck.run();
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length) throws IOException {
+			this.output.write(bytes, offset, length);
+			this.commitCheck.run();
+		}
+
+		@Override
+		public void flush() throws IOException {
+			this.commitTask.run();
+			this.output.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.commitTask.run();
+			this.output.close();
+		}
+	}
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.spring.session;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletRequest;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Registry of the sessions referenced by a given request, used to absorb the redundant {@link org.springframework.session.SessionRepository#findById(String)} and {@link org.springframework.session.SessionRepository#save(org.springframework.session.Session)} invocations made by Spring Session.
+ * A registry is bound to the current servlet request, if exposed via {@link RequestContextHolder}, and thus remains visible to any thread processing an asynchronous request.
+ * Otherwise, a registry is bound to the current thread while it references sessions.
+ * @author Paul Ferraro
+ */
+public class SessionRegistry implements AsyncListener {
+	private static final String ATTRIBUTE_NAME = SessionRegistry.class.getName();
+	private static final ThreadLocal<SessionRegistry> THREAD_REGISTRY = new ThreadLocal<>();
+
+	// Maps each registered session to the nano time of its registration
+	private final Map<SpringSession, Long> sessions = new ConcurrentHashMap<>();
+	private final AtomicBoolean listening = new AtomicBoolean(false);
+	private final ServletRequest request;
+	private volatile Consumer<Duration> deferredCloseListener = null;
+
+	private SessionRegistry(ServletRequest request) {
+		this.request = request;
+	}
+
+	/**
+	 * Returns the registry for the current request, creating it if necessary.
+	 * @return the registry for the current request
+	 */
+	public static SessionRegistry current() {
+		ServletRequest request = currentRequest();
+		if (request != null) {
+			return requestRegistry(request);
+		}
+		SessionRegistry registry = THREAD_REGISTRY.get();
+		// Thread registry is only bound to the current thread once it references a session
+		return (registry != null) ? registry : new SessionRegistry(null);
+	}
+
+	/**
+	 * Binds the registry of the specified request to the current thread, creating it if necessary.
+	 * This ensures that the same registry is used for the specified request, regardless of whether the request is exposed via {@link RequestContextHolder}.
+	 * The caller is responsible for invoking {@link #unbind()}.
+	 * @param request a servlet request
+	 * @return the registry for the specified request
+	 */
+	public static SessionRegistry bind(ServletRequest request) {
+		SessionRegistry registry = requestRegistry(request);
+		// Do not replace a registry already referencing sessions
+		if (THREAD_REGISTRY.get() == null) {
+			THREAD_REGISTRY.set(registry);
+		}
+		return registry;
+	}
+
+	private static SessionRegistry requestRegistry(ServletRequest request) {
+		SessionRegistry registry = (SessionRegistry) request.getAttribute(ATTRIBUTE_NAME);
+		if (registry == null) {
+			registry = new SessionRegistry(request);
+			request.setAttribute(ATTRIBUTE_NAME, registry);
+		}
+		return registry;
+	}
+
+	/**
+	 * Returns the session with the specified identifier referenced by the current request, if one exists.
+	 * @param id a session identifier
+	 * @return the session with the specified identifier, or null, if the current request does not yet reference this session.
+	 */
+	public static SpringSession findSession(String id) {
+		ServletRequest request = currentRequest();
+		SessionRegistry requestRegistry = (request != null) ? (SessionRegistry) request.getAttribute(ATTRIBUTE_NAME) : null;
+		SpringSession session = (requestRegistry != null) ? requestRegistry.get(id) : null;
+		if (session == null) {
+			// Session may have been referenced prior to the exposure of the current request, e.g. by a preceding filter
+			SessionRegistry threadRegistry = THREAD_REGISTRY.get();
+			session = (threadRegistry != null) ? threadRegistry.get(id) : null;
+		}
+		return session;
+	}
+
+	private static ServletRequest currentRequest() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		return (attributes instanceof ServletRequestAttributes servletAttributes) ? servletAttributes.getRequest() : null;
+	}
+
+	/**
+	 * Returns the session with the specified identifier referenced by this registry.
+	 * @param id a session identifier
+	 * @return the session with the specified identifier, or null, if no such session was registered
+	 */
+	public SpringSession get(String id) {
+		for (SpringSession session : this.sessions.keySet()) {
+			if (session.getId().equals(id)) {
+				return session;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Registers the specified session with this registry.
+	 * @param session a session
+	 */
+	public void add(SpringSession session) {
+		this.sessions.put(session, System.nanoTime());
+		if ((this.request == null) && (THREAD_REGISTRY.get() == null)) {
+			THREAD_REGISTRY.set(this);
+		}
+	}
+
+	/**
+	 * Unregisters the specified session from this registry.
+	 * Once this registry no longer references any session, it is unbound from the current thread, so that pooled threads do not retain it.
+	 * @param session a session
+	 */
+	public void remove(SpringSession session) {
+		this.sessions.remove(session);
+		if (this.sessions.isEmpty() && (THREAD_REGISTRY.get() == this)) {
+			THREAD_REGISTRY.remove();
+		}
+	}
+
+	/**
+	 * Unbinds this registry from the current thread, if previously bound via {@link #bind(ServletRequest)}.
+	 */
+	public void unbind() {
+		if (THREAD_REGISTRY.get() == this) {
+			THREAD_REGISTRY.remove();
+		}
+	}
+
+	/**
+	 * Defers the closing of registered sessions until the next invocation of {@link #close()}.
+	 * @param listener a consumer of the duration for which each registered session was held, notified when the session is closed
+	 */
+	public void deferClose(Consumer<Duration> listener) {
+		this.deferredCloseListener = listener;
+	}
+
+	/**
+	 * Cancels any deferral of the closing of registered sessions via {@link #deferClose(Consumer)}.
+	 * This ensures that sessions referenced by any subsequent dispatch of the associated request are closed when saved.
+	 */
+	public void cancelDeferredClose() {
+		this.deferredCloseListener = null;
+	}
+
+	/**
+	 * Indicates whether the closing of registered sessions was deferred via {@link #deferClose(Consumer)}.
+	 * @return true, if the closing of sessions is deferred, false otherwise.
+	 */
+	public boolean isCloseDeferred() {
+		return this.deferredCloseListener != null;
+	}
+
+	/**
+	 * Closes all registered sessions.
+	 */
+	public void close() {
+		Consumer<Duration> listener = this.deferredCloseListener;
+		for (Map.Entry<SpringSession, Long> entry : this.sessions.entrySet()) {
+			// Closing a session will unregister it
+			entry.getKey().close();
+			if (listener != null) {
+				listener.accept(Duration.ofNanos(System.nanoTime() - entry.getValue()));
+			}
+		}
+	}
+
+	/**
+	 * Indicates whether the request associated with this registry matches the specified predicate.
+	 * @param predicate a request predicate
+	 * @return true, if this registry is associated with a request matching the specified predicate, false otherwise.
+	 */
+	public boolean matches(Predicate<ServletRequest> predicate) {
+		return (this.request != null) && predicate.test(this.request);
+	}
+
+	/**
+	 * Indicates whether the request associated with this registry was put into asynchronous mode.
+	 * @return true, if the associated request is asynchronous, false otherwise.
+	 */
+	public boolean isAsyncStarted() {
+		return (this.request != null) && this.request.isAsyncStarted();
+	}
+
+	/**
+	 * Ensures that any sessions registered following the current dispatch of the associated asynchronous request, e.g. by an asynchronous thread, are closed upon completion of that request.
+	 * Sessions registered by the current dispatch are expected to be closed at the end of that dispatch, unless their closing was {@link #deferClose(Consumer) deferred}.
+	 */
+	public void closeOnComplete() {
+		if (this.listening.compareAndSet(false, true)) {
+			this.request.getAsyncContext().addListener(this);
+		}
+	}
+
+	@Override
+	public void onComplete(AsyncEvent event) {
+		this.close();
+	}
+
+	@Override
+	public void onTimeout(AsyncEvent event) {
+		// Wait for completion
+	}
+
+	@Override
+	public void onError(AsyncEvent event) {
+		// Wait for completion
+	}
+
+	@Override
+	public void onStartAsync(AsyncEvent event) {
+		// Listeners are cleared when an asynchronous cycle is restarted
+		event.getAsyncContext().addListener(this);
+	}
+}
@@ -5,8 +5,11 @@
 package org.wildfly.clustering.spring.session;
 
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.session.IndexResolver;
+import org.springframework.session.PrincipalNameIndexResolver;
 import org.springframework.session.Session;
 import org.wildfly.clustering.session.user.UserManager;
 
@@ -26,4 +29,39 @@ public interface UserConfiguration {
 	 * @return the index resolver for a session.
 	 */
 	IndexResolver<Session> getIndexResolver();
+
+	/**
+	 * Returns the names of the session attributes from which indexes are resolved, if these are known.
+	 * These are only known for the default resolvers, i.e. {@link EmptyIndexResolver} and {@link PrincipalNameIndexResolver}, which always read the same attributes, e.g. the attribute named by the index name of a {@link PrincipalNameIndexResolver}, followed by the Spring Security context.
+	 * These attributes are determined by the attributes read by the resolver from an empty session.
+	 * A custom resolver may resolve indexes from any session attribute.
+	 * @return an optional set of session attribute names, or an empty optional if indexes may be resolved from any session attribute.
+	 */
+	default Optional<Set<String>> getIndexedAttributeNames() {
+		IndexResolver<Session> resolver = this.getIndexResolver();
+		if (resolver == EmptyIndexResolver.INSTANCE) {
+			return Optional.of(Set.of());
+		}
+		// N.B. A subclass might resolve indexes from other attributes
+		if (resolver.getClass() == PrincipalNameIndexResolver.class) {
+			AttributeNameRecordingSession session = new AttributeNameRecordingSession();
+			try {
+				resolver.resolveIndexesFor(session);
+			} catch (RuntimeException e) {
+				// Resolution of an empty session may fail, once its attributes were read
+			}
+			return Optional.of(session.getRecordedAttributeNames());
+		}
+		return Optional.empty();
+	}
+
+	/**
+	 * Returns the executor of index maintenance tasks spanning multiple user managers.
+	 * Concurrent index maintenance is opt-in: since these tasks block, they run sequentially on the calling thread by default.
+	 * A session repository configuration only overrides this with a concurrent executor if a blocking executor was configured, e.g. via {@link org.wildfly.clustering.spring.context.config.annotation.SessionManager#virtualThreads()}.
+	 * @return an index task executor
+	 */
+	default IndexTaskExecutor getIndexTaskExecutor() {
+		return IndexTaskExecutor.CALLER_RUNS;
+	}
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.clustering.spring.session.config;
+
+import java.lang.annotation.Annotation;
+import java.util.Map;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.session.IndexResolver;
+import org.springframework.session.Session;
+import org.wildfly.clustering.session.SessionManager;
+import org.wildfly.clustering.spring.session.DistributableReactiveSessionRepository;
+import org.wildfly.clustering.spring.session.ReactiveSessionCloseFilter;
+import org.wildfly.clustering.spring.session.UserConfiguration;
+
+/**
+ * A Spring bean that configures and produces a reactive session repository, for use by WebFlux applications via {@link org.springframework.session.config.annotation.web.server.SpringWebSessionConfiguration}.
+ * Additionally produces the web filter that releases the sessions located by each exchange.
+ * @author Paul Ferraro
+ */
+public abstract class AbstractReactiveSessionConfiguration extends AbstractSessionRepositoryConfiguration {
+
+	/**
+	 * Creates a reactive session configuration.
+	 * @param annotationClass the configuration annotation class
+	 * @param defaultIndexes the default indexes
+	 * @param defaultIndexResolver the default index resolver.
+	 */
+	protected AbstractReactiveSessionConfiguration(Class<? extends Annotation> annotationClass, Map<String, String> defaultIndexes, IndexResolver<Session> defaultIndexResolver) {
+		super(annotationClass, defaultIndexes, defaultIndexResolver);
+	}
+
+	/**
+	 * Produces a distributable reactive session repository.
+	 * @param manager the distributable session manager
+	 * @param userConfiguration the user configuration
+	 * @return a distributable reactive session repository.
+	 */
+	@Bean
+	public DistributableReactiveSessionRepository reactiveSessionRepository(SessionManager<Void> manager, UserConfiguration userConfiguration) {
+		return new DistributableReactiveSessionRepository(this.createSessionRepositoryConfiguration(manager, userConfiguration), this.getBlockingScheduler());
+	}
+
+	/**
+	 * Produces a web filter that releases the sessions located via the reactive session repository on behalf of each exchange.
+	 * @return a web filter
+	 */
+	@Bean
+	public ReactiveSessionCloseFilter reactiveSessionCloseFilter() {
+		return new ReactiveSessionCloseFilter(this.getBlockingScheduler());
+	}
+}
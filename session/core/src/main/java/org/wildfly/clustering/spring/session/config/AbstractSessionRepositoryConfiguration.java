@@ -0,0 +1,359 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.clustering.spring.session.config;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.session.IndexResolver;
+import org.springframework.session.PrincipalNameIndexResolver;
+import org.springframework.session.Session;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.context.ServletContextAware;
+import org.springframework.web.util.UrlPathHelper;
+import org.wildfly.clustering.function.BiConsumer;
+import org.wildfly.clustering.function.BiFunction;
+import org.wildfly.clustering.function.Consumer;
+import org.wildfly.clustering.function.Predicate;
+import org.wildfly.clustering.server.immutable.Immutability;
+import org.wildfly.clustering.session.ImmutableSession;
+import org.wildfly.clustering.session.SessionManager;
+import org.wildfly.clustering.session.user.UserManager;
+import org.wildfly.clustering.spring.context.SessionAccessRecorder;
+import org.wildfly.clustering.spring.context.config.AbstractSessionManagementConfiguration;
+import org.wildfly.clustering.spring.security.SpringSecurityImmutability;
+import org.wildfly.clustering.spring.session.AsyncSessionEventPublisher;
+import org.wildfly.clustering.spring.session.DistributableSessionRepository;
+import org.wildfly.clustering.spring.session.DistributableSessionRepositoryConfiguration;
+import org.wildfly.clustering.spring.session.ImmutableSessionDestroyAction;
+import org.wildfly.clustering.spring.session.IndexTaskExecutor;
+import org.wildfly.clustering.spring.session.MutableIndexingConfiguration;
+import org.wildfly.clustering.spring.session.UserConfiguration;
+import org.wildfly.clustering.spring.web.util.SpringWebImmutability;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Base configuration of a servlet or reactive session repository.
+ * @author Paul Ferraro
+ */
+public abstract class AbstractSessionRepositoryConfiguration extends AbstractSessionManagementConfiguration<ServletContext> implements ApplicationEventPublisherAware, ServletContextAware, MutableIndexingConfiguration {
+	/** The session attribute name containing the Spring Security context */
+	public static final String DEFAULT_SPRING_SECURITY_INDEX_ID = "SPRING_SECURITY_CONTEXT";
+	/** The index name of principal name */
+	public static final String DEFAULT_STRING_SECURITY_INDEX_NAME = "org.springframework.session.FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME";
+	/** The default Spring Security indexes */
+	public static final Map<String, String> DEFAULT_SPRING_SECURITY_INDEXES = Map.of(DEFAULT_SPRING_SECURITY_INDEX_ID, DEFAULT_STRING_SECURITY_INDEX_NAME);
+	/** The default Spring Security index resolver */
+	public static final IndexResolver<Session> DEFAULT_SPRING_SECURITY_INDEX_RESOLVER = new PrincipalNameIndexResolver<>();
+
+	private ServletContext context;
+	private ApplicationEventPublisher publisher;
+	private Map<String, String> indexes;
+	private IndexResolver<Session> indexResolver;
+	private boolean lazyCreation = false;
+	private boolean sessionSharing = false;
+	private List<String> readOnlyPathPatterns = List.of();
+	private Executor eventExecutor = null;
+	private int eventQueueCapacity = 1024;
+	private AsyncSessionEventPublisher.OverflowPolicy eventOverflowPolicy = AsyncSessionEventPublisher.OverflowPolicy.BLOCK;
+	private AsyncSessionEventPublisher asyncEventPublisher = null;
+
+	/**
+	 * Creates a session configuration.
+	 * @param annotationClass the configuration annotation class
+	 * @param defaultIndexes the default indexes
+	 * @param defaultIndexResolver the default index resolver.
+	 */
+	protected AbstractSessionRepositoryConfiguration(Class<? extends Annotation> annotationClass, Map<String, String> defaultIndexes, IndexResolver<Session> defaultIndexResolver) {
+		super(annotationClass);
+		this.indexes = defaultIndexes;
+		this.indexResolver = defaultIndexResolver;
+	}
+
+	/**
+	 * Returns a scheduler for blocking session operations of a reactive session repository.
+	 * @return a scheduler for blocking session operations
+	 */
+	protected Scheduler getBlockingScheduler() {
+		return this.getBlockingExecutor().map(Schedulers::fromExecutor).orElseGet(Schedulers::boundedElastic);
+	}
+
+	/**
+	 * Creates the configuration of a session repository for the specified session manager.
+	 * @param manager the distributable session manager
+	 * @param users the user configuration
+	 * @return a session repository configuration
+	 */
+	protected DistributableSessionRepositoryConfiguration createSessionRepositoryConfiguration(SessionManager<Void> manager, UserConfiguration users) {
+		// Index maintenance tasks block, and thus should use the blocking executor, if one was configured
+		UserConfiguration userConfiguration = this.getBlockingExecutor().map(IndexTaskExecutor::new).<UserConfiguration>map(indexTaskExecutor -> new UserConfiguration() {
+			@Override
+			public Map<String, UserManager<Void, Void, String, String>> getUserManagers() {
+				return users.getUserManagers();
+			}
+
+			@Override
+			public IndexResolver<Session> getIndexResolver() {
+				return users.getIndexResolver();
+			}
+
+			@Override
+			public Optional<Set<String>> getIndexedAttributeNames() {
+				return users.getIndexedAttributeNames();
+			}
+
+			@Override
+			public IndexTaskExecutor getIndexTaskExecutor() {
+				return indexTaskExecutor;
+			}
+		}).orElse(users);
+		if ((this.eventExecutor != null) && (this.asyncEventPublisher == null)) {
+			this.asyncEventPublisher = new AsyncSessionEventPublisher(this.publisher, this.eventExecutor, this.eventQueueCapacity, this.eventOverflowPolicy);
+		}
+		ApplicationEventPublisher publisher = (this.asyncEventPublisher != null) ? this.asyncEventPublisher : this.publisher;
+		ImmutableSessionDestroyAction<Void> sessionDestroyAction = new ImmutableSessionDestroyAction<>(manager, publisher, this.getContext(), userConfiguration);
+		boolean lazyCreation = this.lazyCreation;
+		boolean sessionSharing = this.sessionSharing;
+		SessionAccessRecorder accessRecorder = new SessionAccessRecorder(this.getAccessTimeGranularity());
+		List<String> readOnlyPathPatterns = this.readOnlyPathPatterns;
+		PathMatcher matcher = new AntPathMatcher();
+		Predicate<ServletRequest> readOnly = request -> {
+			if (!readOnlyPathPatterns.isEmpty() && (request instanceof HttpServletRequest httpRequest)) {
+				String path = UrlPathHelper.defaultInstance.getPathWithinApplication(httpRequest);
+				for (String pattern : readOnlyPathPatterns) {
+					if (matcher.match(pattern, path)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		};
+		return new DistributableSessionRepositoryConfiguration() {
+			@Override
+			public SessionManager<Void> getSessionManager() {
+				return manager;
+			}
+
+			@Override
+			public ApplicationEventPublisher getEventPublisher() {
+				return publisher;
+			}
+
+			@Override
+			public BiConsumer<ImmutableSession, BiFunction<Object, Session, ApplicationEvent>> getSessionDestroyAction() {
+				return sessionDestroyAction;
+			}
+
+			@Override
+			public BiConsumer<ImmutableSession, BiFunction<Object, Session, ApplicationEvent>> getSessionDestroyAction(String excludedIndexName) {
+				return sessionDestroyAction.excluding(excludedIndexName);
+			}
+
+			@Override
+			public UserConfiguration getUserConfiguration() {
+				return userConfiguration;
+			}
+
+			@Override
+			public boolean isLazyCreation() {
+				return lazyCreation;
+			}
+
+			@Override
+			public Optional<Duration> getDefaultMaxInactiveInterval() {
+				return AbstractSessionRepositoryConfiguration.this.getMaxIdle();
+			}
+
+			@Override
+			public SessionAccessRecorder getSessionAccessRecorder() {
+				return accessRecorder;
+			}
+
+			@Override
+			public Predicate<ServletRequest> getReadOnlyRequestPredicate() {
+				return readOnly;
+			}
+
+			@Override
+			public boolean isSessionSharing() {
+				return sessionSharing;
+			}
+		};
+	}
+
+	@Override
+	public void setServletContext(ServletContext context) {
+		this.context = context;
+	}
+
+	@Override
+	public void setIndexes(Map<String, String> indexes) {
+		this.indexes = indexes;
+	}
+
+	@Override
+	public void setIndexResolver(IndexResolver<Session> resolver) {
+		this.indexResolver = resolver;
+	}
+
+	/**
+	 * Specifies whether the creation of a session should be deferred until its first attribute is written.
+	 * Sessions to which no attributes are written, e.g. sessions created by anonymous requests, are never created in the cache.
+	 * @param lazyCreation indicates whether session creation should be deferred
+	 */
+	public void setLazyCreation(boolean lazyCreation) {
+		this.lazyCreation = lazyCreation;
+	}
+
+	/**
+	 * Specifies whether concurrent requests for the same session on this node should share a single open session, rather than serialize on its lock.
+	 * The shared session is closed, and thus written, once the last of these requests completes.
+	 * Consequently, requests forfeit per-request isolation, i.e. concurrent requests observe each other's modifications to the session, including its invalidation, as described by {@link org.wildfly.clustering.spring.context.SharedSessionRegistry}.
+	 * Disabled by default.
+	 * @param sessionSharing indicates whether concurrent requests should share a session
+	 */
+	public void setSessionSharing(boolean sessionSharing) {
+		this.sessionSharing = sessionSharing;
+	}
+
+	/**
+	 * Specifies the Ant-style path patterns of requests that only read session state.
+	 * Sessions referenced by such requests are not locked unless modified, and are only written back to the session manager if modified, or if their last access must be recorded.
+	 * Individual requests may alternatively be designated as read-only via the {@link DistributableSessionRepository#READ_ONLY_REQUEST_ATTRIBUTE} request attribute.
+	 * @param patterns a list of path patterns, relative to the context path
+	 */
+	public void setReadOnlyPathPatterns(List<String> patterns) {
+		this.readOnlyPathPatterns = List.copyOf(patterns);
+	}
+
+	/**
+	 * Specifies an executor with which to publish session created and destroyed events asynchronously.
+	 * By default, session events are published synchronously by the thread creating or destroying the session.
+	 * Events for a given session are always published in order.
+	 * e.g. {@code Executors.newVirtualThreadPerTaskExecutor()}
+	 * @param executor an executor used to publish session events
+	 */
+	public void setEventExecutor(Executor executor) {
+		this.eventExecutor = executor;
+	}
+
+	/**
+	 * Specifies the maximum number of session events pending asynchronous publication.
+	 * @param capacity the maximum number of pending session events
+	 */
+	public void setEventQueueCapacity(int capacity) {
+		this.eventQueueCapacity = capacity;
+	}
+
+	/**
+	 * Specifies how to handle session events submitted while the maximum number of session events are pending asynchronous publication.
+	 * @param policy an overflow policy
+	 */
+	public void setEventOverflowPolicy(AsyncSessionEventPublisher.OverflowPolicy policy) {
+		this.eventOverflowPolicy = policy;
+	}
+
+	/**
+	 * Returns the asynchronous session event publisher, exposing its statistics, if asynchronous session event publishing was enabled via {@link #setEventExecutor(Executor)}.
+	 * @return an optional asynchronous session event publisher
+	 */
+	public Optional<AsyncSessionEventPublisher> getAsyncEventPublisher() {
+		return Optional.ofNullable(this.asyncEventPublisher);
+	}
+
+	@Override
+	public void setApplicationEventPublisher(ApplicationEventPublisher publisher) {
+		this.publisher = publisher;
+	}
+
+	@Override
+	public String getDeploymentName() {
+		return this.context.getVirtualServerName() + this.context.getContextPath();
+	}
+
+	@Override
+	public Map<String, String> getIndexes() {
+		return this.indexes;
+	}
+
+	@Override
+	public IndexResolver<Session> getIndexResolver() {
+		return this.indexResolver;
+	}
+
+	@Override
+	public String getServerName() {
+		return this.getContext().getVirtualServerName();
+	}
+
+	@Override
+	public ClassLoader getClassLoader() {
+		return this.context.getClassLoader();
+	}
+
+	@Override
+	public ServletContext getContext() {
+		return this.context;
+	}
+
+	@Override
+	public Consumer<ImmutableSession> getExpirationListener() {
+		return Consumer.of();
+	}
+
+	@Override
+	public Optional<Duration> getMaxIdle() {
+		return Optional.of(Duration.ofMinutes(this.getContext().getSessionTimeout())).filter(Predicate.not(Duration::isZero).and(Predicate.not(Duration::isNegative)));
+	}
+
+	@Override
+	public Immutability getImmutability() {
+		List<Immutability> loadedImmutabilities = new LinkedList<>();
+		for (Immutability loadedImmutability : ServiceLoader.load(Immutability.class, this.context.getClassLoader())) {
+			loadedImmutabilities.add(loadedImmutability);
+		}
+		return Immutability.composite(Stream.concat(Stream.of(Immutability.getDefault(), SpringSecurityImmutability.INSTANCE, SpringWebImmutability.MUTEX), loadedImmutabilities.stream()).toList());
+	}
+
+	@Override
+	public void accept(AnnotationAttributes attributes) {
+		if (attributes.containsKey("indexing")) {
+			AnnotationAttributes indexing = attributes.getAnnotation("indexing");
+			Map<String, String> indexes = new TreeMap<>();
+			for (AnnotationAttributes index : indexing.getAnnotationArray("indexes")) {
+				indexes.put(index.getString("id"), index.getString("name"));
+			}
+			this.setIndexes(indexes);
+			Class<? extends IndexResolver<Session>> resolverClass = indexing.getClass("resolverClass");
+			try {
+				this.setIndexResolver(resolverClass.getConstructor().newInstance());
+			} catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+				throw new IllegalArgumentException(resolverClass.getCanonicalName());
+			}
+		}
+	}
+}
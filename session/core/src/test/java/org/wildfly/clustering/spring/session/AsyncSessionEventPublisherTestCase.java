@@ -0,0 +1,191 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.spring.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.PrincipalNameIndexResolver;
+import org.springframework.session.Session;
+import org.springframework.session.events.SessionCreatedEvent;
+import org.springframework.session.events.SessionDeletedEvent;
+
+/**
+ * Unit test for {@link AsyncSessionEventPublisher}.
+ * @author Paul Ferraro
+ */
+public class AsyncSessionEventPublisherTestCase {
+
+	private final Queue<Runnable> tasks = new LinkedList<>();
+	private final Executor executor = this.tasks::add;
+	private final List<Object> events = new ArrayList<>();
+	private final ApplicationEventPublisher publisher = this.events::add;
+
+	@Test
+	public void publish() {
+		AsyncSessionEventPublisher subject = new AsyncSessionEventPublisher(this.publisher, this.executor, 10, AsyncSessionEventPublisher.OverflowPolicy.BLOCK);
+		Session session = mockSession("foo");
+
+		subject.publishEvent(new SessionCreatedEvent(this, session));
+		subject.publishEvent(new SessionDeletedEvent(this, session));
+
+		// Nothing published until executed
+		assertThat(this.events).isEmpty();
+		assertThat(subject.getPendingCount()).isEqualTo(2);
+
+		// Events for the same session are chained
+		runAll();
+
+		assertThat(this.events).hasSize(2);
+		assertThat(this.events.get(0)).isInstanceOf(SessionCreatedEvent.class);
+		assertThat(this.events.get(1)).isInstanceOf(SessionDeletedEvent.class);
+		assertThat(subject.getPendingCount()).isZero();
+		assertThat(subject.getPublishedCount()).isEqualTo(2L);
+
+		Session snapshot = ((SessionDeletedEvent) this.events.get(1)).getSession();
+		assertThat(snapshot).isNotSameAs(session);
+		assertThat(snapshot.getId()).isEqualTo("foo");
+		assertThat(snapshot.getCreationTime()).isEqualTo(session.getCreationTime());
+		assertThat(snapshot.getLastAccessedTime()).isEqualTo(session.getLastAccessedTime());
+		assertThat(snapshot.getMaxInactiveInterval()).isEqualTo(session.getMaxInactiveInterval());
+
+		// Attributes, other than persisted indexes, must never be read
+		verify(session, never()).getAttributeNames();
+		verify(session, never()).getAttribute(argThat(name -> !name.equals(DistributableImmutableSession.INDEXES_ATTRIBUTE_NAME)));
+	}
+
+	@Test
+	public void publishIndexes() {
+		AsyncSessionEventPublisher subject = new AsyncSessionEventPublisher(this.publisher, this.executor, 10, AsyncSessionEventPublisher.OverflowPolicy.BLOCK);
+		Session session = mockSession("foo");
+		doReturn(Map.of(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "user")).when(session).getAttribute(DistributableImmutableSession.INDEXES_ATTRIBUTE_NAME);
+
+		subject.publishEvent(new SessionDeletedEvent(this, session));
+
+		runAll();
+
+		// Listeners, e.g. audit listeners, must be able to resolve the principal of the snapshot
+		Session snapshot = ((SessionDeletedEvent) this.events.get(0)).getSession();
+		assertThat(snapshot.<String>getAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME)).isEqualTo("user");
+		assertThat(new PrincipalNameIndexResolver<>().resolveIndexValueFor(snapshot)).isEqualTo("user");
+	}
+
+	@Test
+	public void reject() {
+		AtomicBoolean reject = new AtomicBoolean(false);
+		Executor executor = task -> {
+			if (reject.get()) {
+				throw new RejectedExecutionException();
+			}
+			this.tasks.add(task);
+		};
+		AsyncSessionEventPublisher subject = new AsyncSessionEventPublisher(this.publisher, executor, 10, AsyncSessionEventPublisher.OverflowPolicy.BLOCK);
+		Session session = mockSession("foo");
+
+		subject.publishEvent(new SessionCreatedEvent(this, session));
+		reject.set(true);
+		// Submitted via the thread publishing the preceding event
+		subject.publishEvent(new SessionDeletedEvent(this, session));
+		// Submitted via the calling thread
+		subject.publishEvent(new SessionDeletedEvent(this, mockSession("bar")));
+
+		assertThat(subject.getFailedCount()).isEqualTo(1L);
+		assertThat(subject.getPendingCount()).isEqualTo(2);
+
+		// Rejection must not propagate to the thread publishing the preceding event
+		runAll();
+
+		assertThat(this.events).hasSize(1);
+		assertThat(subject.getFailedCount()).isEqualTo(2L);
+		// Capacity must be released
+		assertThat(subject.getPendingCount()).isZero();
+	}
+
+	@Test
+	public void discard() {
+		AsyncSessionEventPublisher subject = new AsyncSessionEventPublisher(this.publisher, this.executor, 1, AsyncSessionEventPublisher.OverflowPolicy.DISCARD);
+		Session session = mockSession("foo");
+		Session discardedSession = mock(Session.class);
+		doReturn("bar").when(discardedSession).getId();
+
+		subject.publishEvent(new SessionDeletedEvent(this, session));
+		subject.publishEvent(new SessionDeletedEvent(this, discardedSession));
+
+		assertThat(subject.getDiscardedCount()).isEqualTo(1L);
+
+		runAll();
+
+		assertThat(this.events).hasSize(1);
+		// No work should be performed for a discarded event, beyond determining its identifier
+		verify(discardedSession).getId();
+		verify(discardedSession, never()).getCreationTime();
+		verify(discardedSession, never()).getAttributeNames();
+	}
+
+	@Test
+	public void callerRuns() {
+		AsyncSessionEventPublisher subject = new AsyncSessionEventPublisher(this.publisher, this.executor, 1, AsyncSessionEventPublisher.OverflowPolicy.CALLER_RUNS);
+		Session session = mockSession("foo");
+		Session otherSession = mockSession("bar");
+
+		subject.publishEvent(new SessionCreatedEvent(this, session));
+		subject.publishEvent(new SessionDeletedEvent(this, otherSession));
+
+		// Overflowed event is published by the caller
+		assertThat(this.events).hasSize(1);
+		assertThat(subject.getCallerRunsCount()).isEqualTo(1L);
+
+		runAll();
+
+		assertThat(this.events).hasSize(2);
+	}
+
+	@Test
+	public void nonSessionEvent() {
+		AsyncSessionEventPublisher subject = new AsyncSessionEventPublisher(this.publisher, this.executor, 1, AsyncSessionEventPublisher.OverflowPolicy.BLOCK);
+		Object event = new Object();
+
+		subject.publishEvent(event);
+
+		// Other events are published synchronously
+		assertThat(this.events).containsExactly(event);
+		assertThat(this.tasks).isEmpty();
+	}
+
+	private void runAll() {
+		Runnable task = this.tasks.poll();
+		while (task != null) {
+			task.run();
+			task = this.tasks.poll();
+		}
+	}
+
+	private static Session mockSession(String id) {
+		Session session = mock(Session.class);
+		doReturn(id).when(session).getId();
+		doReturn(Instant.now()).when(session).getCreationTime();
+		doReturn(Instant.now()).when(session).getLastAccessedTime();
+		doReturn(Duration.ofMinutes(30)).when(session).getMaxInactiveInterval();
+		return session;
+	}
+}
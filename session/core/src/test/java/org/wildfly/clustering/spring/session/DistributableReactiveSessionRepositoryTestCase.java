@@ -0,0 +1,181 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.spring.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.session.Session;
+import org.springframework.session.events.SessionCreatedEvent;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import org.wildfly.clustering.function.Supplier;
+import org.wildfly.clustering.session.SessionManager;
+import org.wildfly.clustering.session.SessionMetaData;
+import org.wildfly.clustering.spring.context.SessionAccessRecorder;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Unit test for {@link DistributableReactiveSessionRepository}.
+ * @author Paul Ferraro
+ */
+public class DistributableReactiveSessionRepositoryTestCase {
+	@SuppressWarnings("unchecked")
+	private final SessionManager<Void> manager = mock(SessionManager.class);
+	private final DistributableSessionRepositoryConfiguration configuration = mock(DistributableSessionRepositoryConfiguration.class);
+	private final UserConfiguration userConfiguration = mock(UserConfiguration.class);
+	private final ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+	@SuppressWarnings("unchecked")
+	private final org.wildfly.clustering.session.Session<Void> session = mock(org.wildfly.clustering.session.Session.class);
+	private final SessionMetaData metaData = mock(SessionMetaData.class);
+	private final Map<String, Object> attributes = new HashMap<>();
+
+	@BeforeEach
+	public void init() {
+		doReturn(this.manager).when(this.configuration).getSessionManager();
+		doReturn(this.publisher).when(this.configuration).getEventPublisher();
+		doReturn(mock(org.wildfly.clustering.function.BiConsumer.class)).when(this.configuration).getSessionDestroyAction();
+		doReturn(this.userConfiguration).when(this.configuration).getUserConfiguration();
+		doReturn(Optional.of(Duration.ofMinutes(10))).when(this.configuration).getDefaultMaxInactiveInterval();
+		doReturn(new SessionAccessRecorder(Duration.ZERO)).when(this.configuration).getSessionAccessRecorder();
+		doReturn(Optional.of(Set.of())).when(this.userConfiguration).getIndexedAttributeNames();
+		doReturn(Supplier.of("foo")).when(this.manager).getIdentifierFactory();
+
+		doReturn("foo").when(this.session).getId();
+		doReturn(true).when(this.session).isValid();
+		doReturn(this.metaData).when(this.session).getMetaData();
+		doReturn(this.attributes).when(this.session).getAttributes();
+		doReturn(Optional.empty()).when(this.metaData).getLastAccessTime();
+		doReturn(Instant.now()).when(this.metaData).getCreationTime();
+		doReturn(CompletableFuture.completedFuture(this.session)).when(this.manager).createSessionAsync(eq("foo"), any());
+		doReturn(CompletableFuture.completedFuture(this.session)).when(this.manager).findSessionAsync("foo");
+	}
+
+	private DistributableReactiveSessionRepository createRepository() {
+		return new DistributableReactiveSessionRepository(this.configuration, Schedulers.immediate());
+	}
+
+	@Test
+	public void saveNewSession() {
+		DistributableReactiveSessionRepository repository = this.createRepository();
+
+		Session session = repository.createSession().block();
+		assertThat(session.getMaxInactiveInterval()).isEqualTo(Duration.ofMinutes(10));
+		session.setAttribute("bar", "baz");
+
+		repository.save(session).block();
+
+		verify(this.manager).createSessionAsync(eq("foo"), any());
+		verify(this.metaData).setMaxIdle(Duration.ofMinutes(10));
+		assertThat(this.attributes).containsEntry("bar", "baz");
+		ArgumentCaptor<SessionCreatedEvent> event = ArgumentCaptor.forClass(SessionCreatedEvent.class);
+		verify(this.publisher).publishEvent(event.capture());
+		assertThat(event.getValue().getSessionId()).isEqualTo("foo");
+
+		// Subsequent save must update, rather than recreate, the persisted session
+		session.removeAttribute("bar");
+		session.setAttribute("qux", "quux");
+
+		repository.save(session).block();
+
+		verify(this.manager).createSessionAsync(eq("foo"), any());
+		verify(this.manager).findSessionAsync("foo");
+		verify(this.publisher).publishEvent(any(SessionCreatedEvent.class));
+		assertThat(this.attributes).doesNotContainKey("bar").containsEntry("qux", "quux");
+	}
+
+	@Test
+	public void closeUnsavedSession() {
+		DistributableReactiveSessionRepository repository = this.createRepository();
+		ReactiveSessionCloseFilter filter = new ReactiveSessionCloseFilter(Schedulers.immediate());
+		// e.g. an exchange that never starts its session
+		WebFilterChain chain = exchange -> repository.findById("foo").then();
+
+		filter.filter(mock(ServerWebExchange.class), chain).block();
+
+		// Session must be closed, releasing its lock, once its exchange completes
+		verify(this.session).close();
+		assertThat(filter.getSessionCount()).isEqualTo(1L);
+	}
+
+	@Test
+	public void closeSessionOfFailedExchange() {
+		DistributableReactiveSessionRepository repository = this.createRepository();
+		ReactiveSessionCloseFilter filter = new ReactiveSessionCloseFilter(Schedulers.immediate());
+		WebFilterChain chain = exchange -> repository.findById("foo").then(Mono.error(new IllegalStateException()));
+
+		Mono<Void> result = filter.filter(mock(ServerWebExchange.class), chain).onErrorComplete();
+		result.block();
+
+		verify(this.session).close();
+		assertThat(filter.getSessionCount()).isEqualTo(1L);
+	}
+
+	@Test
+	public void saveFoundSession() {
+		DistributableReactiveSessionRepository repository = this.createRepository();
+		ReactiveSessionCloseFilter filter = new ReactiveSessionCloseFilter(Schedulers.immediate());
+		WebFilterChain chain = exchange -> repository.findById("foo").flatMap(repository::save);
+
+		filter.filter(mock(ServerWebExchange.class), chain).block();
+
+		// Saved session must be closed once, by the repository
+		verify(this.session).close();
+		assertThat(filter.getSessionCount()).isZero();
+		verify(this.manager, never()).createSessionAsync(any(), any());
+	}
+
+	@Test
+	public void deleteFoundSession() {
+		DistributableReactiveSessionRepository repository = this.createRepository();
+		ReactiveSessionCloseFilter filter = new ReactiveSessionCloseFilter(Schedulers.immediate());
+		WebFilterChain chain = exchange -> repository.findById("foo").then(repository.deleteById("foo"));
+
+		filter.filter(mock(ServerWebExchange.class), chain).block();
+
+		// Session located by the same exchange must be reused, rather than looked up again
+		verify(this.manager).findSessionAsync("foo");
+		verify(this.session).invalidate();
+		verify(this.session).close();
+		assertThat(filter.getSessionCount()).isZero();
+	}
+
+	@Test
+	public void deleteSessionOfOtherExchange() {
+		DistributableReactiveSessionRepository repository = this.createRepository();
+		ReactiveSessionCloseFilter filter = new ReactiveSessionCloseFilter(Schedulers.immediate());
+		// Delete via a concurrent exchange, while the session remains referenced by another exchange
+		WebFilterChain deleteChain = exchange -> repository.deleteById("foo");
+		WebFilterChain chain = exchange -> repository.findById("foo").then(filter.filter(exchange, deleteChain));
+
+		filter.filter(mock(ServerWebExchange.class), chain).block();
+
+		// Session of another exchange must not be reused, since a session is not thread-safe
+		verify(this.manager, times(2)).findSessionAsync("foo");
+		verify(this.session).invalidate();
+		// Session of the first exchange is closed by the filter
+		assertThat(filter.getSessionCount()).isEqualTo(1L);
+	}
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.spring.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.wildfly.clustering.function.BiConsumer;
+import org.wildfly.clustering.function.BiFunction;
+import org.wildfly.clustering.function.Predicate;
+import org.wildfly.clustering.session.ImmutableSession;
+import org.wildfly.clustering.session.ImmutableSessionMetaData;
+import org.wildfly.clustering.session.Session;
+import org.wildfly.clustering.session.SessionManager;
+import org.wildfly.clustering.session.SessionMetaData;
+import org.wildfly.clustering.session.user.User;
+import org.wildfly.clustering.session.user.UserManager;
+import org.wildfly.clustering.spring.context.SessionAccessRecorder;
+
+/**
+ * Unit test for {@link DistributableSessionRepository}.
+ * @author Paul Ferraro
+ */
+public class DistributableSessionRepositoryTestCase {
+	private static final String INDEX_NAME = "principal";
+	private static final String INDEX_VALUE = "user";
+
+	@SuppressWarnings("unchecked")
+	private final SessionManager<Void> manager = mock(SessionManager.class);
+	private final DistributableSessionRepositoryConfiguration configuration = mock(DistributableSessionRepositoryConfiguration.class);
+	private final UserConfiguration userConfiguration = mock(UserConfiguration.class);
+	@SuppressWarnings("unchecked")
+	private final UserManager<Void, Void, String, String> userManager = mock(UserManager.class, RETURNS_DEEP_STUBS);
+	@SuppressWarnings("unchecked")
+	private final User<Void, Void, String, String> user = mock(User.class, RETURNS_DEEP_STUBS);
+	@SuppressWarnings("unchecked")
+	private final BiConsumer<ImmutableSession, BiFunction<Object, org.springframework.session.Session, ApplicationEvent>> destroyAction = mock(BiConsumer.class);
+	@SuppressWarnings("unchecked")
+	private final BiConsumer<ImmutableSession, BiFunction<Object, org.springframework.session.Session, ApplicationEvent>> excludingDestroyAction = mock(BiConsumer.class);
+	@SuppressWarnings("unchecked")
+	private final Session<Void> session = mock(Session.class);
+	private final SessionMetaData metaData = mock(SessionMetaData.class);
+	private final ImmutableSession immutableSession = mock(ImmutableSession.class);
+	private final ImmutableSessionMetaData immutableMetaData = mock(ImmutableSessionMetaData.class);
+
+	@SuppressWarnings("unchecked")
+	@BeforeEach
+	public void init() {
+		doReturn(this.manager).when(this.configuration).getSessionManager();
+		doReturn(mock(ApplicationEventPublisher.class)).when(this.configuration).getEventPublisher();
+		doReturn(this.destroyAction).when(this.configuration).getSessionDestroyAction();
+		doReturn(this.excludingDestroyAction).when(this.configuration).getSessionDestroyAction(INDEX_NAME);
+		doReturn(this.userConfiguration).when(this.configuration).getUserConfiguration();
+		doReturn(Optional.empty()).when(this.configuration).getDefaultMaxInactiveInterval();
+		doReturn(new SessionAccessRecorder(Duration.ofMinutes(1))).when(this.configuration).getSessionAccessRecorder();
+		doReturn(mock(Predicate.class)).when(this.configuration).getReadOnlyRequestPredicate();
+
+		doReturn(Map.of(INDEX_NAME, this.userManager)).when(this.userConfiguration).getUserManagers();
+		doReturn(Optional.of(Set.of())).when(this.userConfiguration).getIndexedAttributeNames();
+		doReturn(this.user).when(this.userManager).findUser(INDEX_VALUE);
+		doReturn(Map.of("foo", "s1", "bar", "s2")).when(this.user.getSessions()).getSessions();
+
+		doReturn("s1").when(this.session).getId();
+		doReturn(true).when(this.session).isValid();
+		doReturn(this.metaData).when(this.session).getMetaData();
+		doReturn(new HashMap<>()).when(this.session).getAttributes();
+		doReturn(Optional.of(Instant.now())).when(this.metaData).getLastAccessTime();
+		doReturn(CompletableFuture.completedFuture(this.session)).when(this.manager).findSessionAsync("s1");
+		// Session s2 was invalidated or expired concurrently
+		doReturn(CompletableFuture.completedFuture(null)).when(this.manager).findSessionAsync("s2");
+
+		doReturn("s1").when(this.immutableSession).getId();
+		doReturn(true).when(this.immutableSession).isValid();
+		doReturn(this.immutableMetaData).when(this.immutableSession).getMetaData();
+		doReturn(Map.of()).when(this.immutableSession).getAttributes();
+		doReturn(Optional.of(Instant.now())).when(this.immutableMetaData).getLastAccessTime();
+		doReturn(this.immutableSession).when(this.manager).findImmutableSession("s1");
+	}
+
+	@AfterEach
+	public void destroy() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	public void defaults() {
+		DistributableSessionRepositoryConfiguration configuration = mock(DistributableSessionRepositoryConfiguration.class, CALLS_REAL_METHODS);
+		doReturn(this.destroyAction).when(configuration).getSessionDestroyAction();
+
+		// Defaults must preserve the behavior of existing configurations
+		assertThat(configuration.getSessionDestroyAction(INDEX_NAME)).isSameAs(this.destroyAction);
+		assertThat(configuration.isLazyCreation()).isFalse();
+		assertThat(configuration.getDefaultMaxInactiveInterval()).isEmpty();
+		assertThat(configuration.getReadOnlyRequestPredicate().test(mock(HttpServletRequest.class))).isFalse();
+
+		SessionMetaData metaData = mock(SessionMetaData.class);
+		Instant now = Instant.now();
+		doReturn(Optional.of(now)).when(metaData).getLastAccessTime();
+		doReturn(Optional.empty()).when(metaData).getMaxIdle();
+
+		// Every access must be recorded
+		assertThat(configuration.getSessionAccessRecorder().isRecordRequired(metaData, now)).isTrue();
+	}
+
+	@Test
+	public void sessionSharing() {
+		// Session sharing must be opt-in
+		assertThat(mock(DistributableSessionRepositoryConfiguration.class, CALLS_REAL_METHODS).isSessionSharing()).isFalse();
+		assertThat(new DistributableSessionRepository(this.configuration).getSharedSessionRegistry()).isEmpty();
+
+		doReturn(true).when(this.configuration).isSessionSharing();
+
+		assertThat(new DistributableSessionRepository(this.configuration).getSharedSessionRegistry()).isPresent();
+	}
+
+	@Test
+	public void saveAsync() throws IOException {
+		HttpServletRequest request = mock(HttpServletRequest.class);
+		AsyncContext context = mock(AsyncContext.class);
+		Map<String, Object> attributes = new HashMap<>();
+		doAnswer(invocation -> attributes.get(invocation.getArgument(0))).when(request).getAttribute(anyString());
+		doAnswer(invocation -> attributes.put(invocation.getArgument(0), invocation.getArgument(1))).when(request).setAttribute(anyString(), any());
+		doReturn(true).when(request).isAsyncStarted();
+		doReturn(context).when(request).getAsyncContext();
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+		DistributableSessionRepository repository = new DistributableSessionRepository(this.configuration);
+
+		SpringSession session = repository.findById("s1");
+		assertThat(session).isNotNull();
+
+		// End of initial dispatch of asynchronous request
+		repository.save(session);
+
+		verify(this.session, never()).close();
+		ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+		verify(context).addListener(listener.capture());
+
+		// Asynchronous thread, to which the current request is not exposed, references the same session, e.g. via the request wrapper of Spring Session
+		CompletableFuture.runAsync(() -> {
+			assertThat(RequestContextHolder.getRequestAttributes()).isNull();
+			session.setAttribute("foo", "bar");
+			repository.save(session);
+		}).join();
+
+		// Session must only be looked up once per request, and remain open until the asynchronous request completes
+		verify(this.manager).findSessionAsync("s1");
+		verify(this.session, never()).close();
+		assertThat(this.session.getAttributes()).containsEntry("foo", "bar");
+
+		// Subsequent save by asynchronous dispatch, after which the request is no longer asynchronous
+		doReturn(false).when(request).isAsyncStarted();
+		repository.save(session);
+
+		verify(this.session, never()).close();
+
+		listener.getValue().onComplete(null);
+
+		verify(this.session).close();
+		verify(this.manager).findSessionAsync("s1");
+	}
+
+	@Test
+	public void findByIndexNameAndIndexValue() {
+		CompletableFuture<ImmutableSession> pending = new CompletableFuture<>();
+		doReturn(pending).when(this.manager).findImmutableSessionAsync("s1");
+		// Session s2 was invalidated or expired concurrently
+		doReturn(CompletableFuture.completedFuture(null)).when(this.manager).findImmutableSessionAsync("s2");
+
+		DistributableSessionRepository repository = new DistributableSessionRepository(this.configuration);
+
+		assertThat(repository.findByIndexNameAndIndexValue("unknown", INDEX_VALUE)).isEmpty();
+
+		CompletableFuture<Map<String, SpringSession>> result = CompletableFuture.supplyAsync(() -> repository.findByIndexNameAndIndexValue(INDEX_NAME, INDEX_VALUE));
+
+		// All lookups must be issued before any completes
+		verify(this.manager, timeout(5000)).findImmutableSessionAsync("s1");
+		verify(this.manager, timeout(5000)).findImmutableSessionAsync("s2");
+		assertThat(result).isNotDone();
+
+		pending.complete(this.immutableSession);
+
+		Map<String, SpringSession> sessions = result.join();
+
+		assertThat(sessions).containsOnlyKeys("s1");
+		assertThat(sessions.get("s1").getId()).isEqualTo("s1");
+		verify(this.manager, never()).findSessionAsync(anyString());
+	}
+
+	@Test
+	public void streamByIndexNameAndIndexValue() {
+		Map<String, String> sessionIds = new HashMap<>();
+		for (int i = 1; i <= 5; ++i) {
+			String id = "s" + i;
+			sessionIds.put("foo" + i, id);
+			if (i != 2) {
+				ImmutableSession session = mock(ImmutableSession.class);
+				doReturn(id).when(session).getId();
+				doReturn(CompletableFuture.completedFuture(session)).when(this.manager).findImmutableSessionAsync(id);
+			} else {
+				// Session s2 was invalidated or expired concurrently
+				doReturn(CompletableFuture.completedFuture(null)).when(this.manager).findImmutableSessionAsync(id);
+			}
+		}
+		doReturn(sessionIds).when(this.user.getSessions()).getSessions();
+
+		DistributableSessionRepository repository = new DistributableSessionRepository(this.configuration);
+
+		assertThatThrownBy(() -> repository.streamByIndexNameAndIndexValue(INDEX_NAME, INDEX_VALUE, 0)).isInstanceOf(IllegalArgumentException.class);
+		assertThat(repository.streamByIndexNameAndIndexValue("unknown", INDEX_VALUE, 2)).isEmpty();
+
+		Stream<SpringSession> stream = repository.streamByIndexNameAndIndexValue(INDEX_NAME, INDEX_VALUE, 2);
+
+		// Sessions must be loaded lazily
+		verify(this.manager, never()).findImmutableSessionAsync(anyString());
+
+		assertThat(stream.findFirst()).hasValueSatisfying(session -> assertThat(session.getId()).isEqualTo("s1"));
+
+		// Only the first chunk must have been loaded
+		verify(this.manager).findImmutableSessionAsync("s1");
+		verify(this.manager).findImmutableSessionAsync("s2");
+		verify(this.manager, never()).findImmutableSessionAsync("s3");
+
+		// Sessions must be ordered by identifier, omitting those that no longer exist
+		assertThat(repository.streamByIndexNameAndIndexValue(INDEX_NAME, INDEX_VALUE, 2).map(SpringSession::getId)).containsExactly("s1", "s3", "s4", "s5");
+	}
+
+	@Test
+	public void deleteByIndexNameAndIndexValue() {
+		DistributableSessionRepository repository = new DistributableSessionRepository(this.configuration);
+
+		repository.deleteByIndexNameAndIndexValue(INDEX_NAME, INDEX_VALUE);
+
+		this.verifyDeleted();
+	}
+
+	@Test
+	public void deleteByIndexNameAndIndexValueReferencedByCurrentRequest() {
+		DistributableSessionRepository repository = new DistributableSessionRepository(this.configuration);
+
+		SpringSession current = repository.findById("s1");
+		assertThat(current).isInstanceOf(DistributableSession.class);
+
+		repository.deleteByIndexNameAndIndexValue(INDEX_NAME, INDEX_VALUE);
+
+		this.verifyDeleted();
+		// Current request must no longer reference the deleted session
+		assertThat(SessionRegistry.findSession("s1")).isNull();
+	}
+
+	@Test
+	public void deleteByIndexNameAndIndexValueReferencedByCurrentReadOnlyRequest() {
+		HttpServletRequest request = mock(HttpServletRequest.class);
+		Map<String, Object> attributes = new HashMap<>();
+		attributes.put(DistributableSessionRepository.READ_ONLY_REQUEST_ATTRIBUTE, Boolean.TRUE);
+		doAnswer(invocation -> attributes.get(invocation.getArgument(0))).when(request).getAttribute(anyString());
+		doAnswer(invocation -> attributes.put(invocation.getArgument(0), invocation.getArgument(1))).when(request).setAttribute(anyString(), any());
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+		DistributableSessionRepository repository = new DistributableSessionRepository(this.configuration);
+
+		SpringSession current = repository.findById("s1");
+		assertThat(current).isInstanceOf(ReadOnlySession.class);
+
+		repository.deleteByIndexNameAndIndexValue(INDEX_NAME, INDEX_VALUE);
+
+		// Session referenced by a read-only request must also be invalidated
+		this.verifyDeleted();
+		assertThat(SessionRegistry.findSession("s1")).isNull();
+	}
+
+	private void verifyDeleted() {
+		// Sessions must be destroyed excluding the index, which is removed once
+		verify(this.excludingDestroyAction).accept(any(), any());
+		verifyNoInteractions(this.destroyAction);
+		verify(this.session).invalidate();
+		verify(this.session, atLeastOnce()).close();
+		verify(this.user).invalidate();
+		verify(this.user.getSessions(), never()).removeSession(anyString());
+	}
+}
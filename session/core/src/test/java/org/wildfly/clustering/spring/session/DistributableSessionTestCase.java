@@ -0,0 +1,158 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.spring.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import jakarta.servlet.http.HttpSessionBindingListener;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.session.IndexResolver;
+import org.wildfly.clustering.function.BiConsumer;
+import org.wildfly.clustering.function.BiFunction;
+import org.wildfly.clustering.session.ImmutableSession;
+import org.wildfly.clustering.session.Session;
+import org.wildfly.clustering.session.SessionManager;
+import org.wildfly.clustering.session.SessionMetaData;
+import org.wildfly.clustering.session.user.UserManager;
+import org.wildfly.clustering.spring.context.SessionAccessRecorder;
+
+/**
+ * Unit test for {@link DistributableSession}.
+ * @author Paul Ferraro
+ */
+public class DistributableSessionTestCase {
+	@SuppressWarnings("unchecked")
+	private final SessionManager<Void> manager = mock(SessionManager.class);
+	@SuppressWarnings("unchecked")
+	private final Session<Void> session = mock(Session.class);
+	private final SessionMetaData metaData = mock(SessionMetaData.class);
+	private final Runnable closeTask = mock(Runnable.class);
+	private final UserConfiguration configuration = mock(UserConfiguration.class);
+	@SuppressWarnings("unchecked")
+	private final BiConsumer<ImmutableSession, BiFunction<Object, org.springframework.session.Session, ApplicationEvent>> destroyAction = mock(BiConsumer.class);
+	private final Map<String, Object> attributes = new HashMap<>();
+
+	@BeforeEach
+	public void init() {
+		doReturn("foo").when(this.session).getId();
+		doReturn(true).when(this.session).isValid();
+		doReturn(this.metaData).when(this.session).getMetaData();
+		doReturn(this.attributes).when(this.session).getAttributes();
+		doReturn(Optional.empty()).when(this.metaData).getLastAccessTime();
+		doReturn(Instant.now()).when(this.metaData).getCreationTime();
+		doReturn(Optional.of(Set.of())).when(this.configuration).getIndexedAttributeNames();
+	}
+
+	private DistributableSession createSession() {
+		return new DistributableSession(this.manager, this.session, this.closeTask, this.configuration, this.destroyAction, new SessionAccessRecorder(Duration.ZERO));
+	}
+
+	@Test
+	public void bindingListeners() {
+		DistributableSession.initialize(this.session);
+		DistributableSession subject = this.createSession();
+
+		subject.setAttribute("bar", "baz");
+
+		assertThat(this.attributes).containsEntry(DistributableImmutableSession.BINDING_LISTENER_ATTRIBUTE_NAMES, Set.of());
+
+		HttpSessionBindingListener listener = mock(HttpSessionBindingListener.class);
+		subject.setAttribute("listener", listener);
+
+		assertThat(this.attributes).containsEntry(DistributableImmutableSession.BINDING_LISTENER_ATTRIBUTE_NAMES, Set.of("listener"));
+		// Internal attributes must not be visible to the application
+		assertThat(subject.getAttributeNames()).containsExactlyInAnyOrder("bar", "listener");
+
+		subject.removeAttribute("listener");
+
+		// Tracked session must remain tracked
+		assertThat(this.attributes).containsEntry(DistributableImmutableSession.BINDING_LISTENER_ATTRIBUTE_NAMES, Set.of());
+	}
+
+	@Test
+	public void untrackedBindingListeners() {
+		// Session created by a prior version
+		DistributableSession subject = this.createSession();
+
+		subject.setAttribute("listener", mock(HttpSessionBindingListener.class));
+
+		// Untracked session must remain untracked, since it may already contain binding listeners
+		assertThat(this.attributes).containsOnlyKeys("listener");
+	}
+
+	@Test
+	public void indexes() {
+		@SuppressWarnings("unchecked")
+		UserManager<Void, Void, String, String> userManager = mock(UserManager.class, RETURNS_DEEP_STUBS);
+		doReturn(Optional.empty()).when(this.configuration).getIndexedAttributeNames();
+		doReturn((IndexResolver<org.springframework.session.Session>) session -> Optional.ofNullable(session.<String>getAttribute("principal")).map(principal -> Map.of("index", principal)).orElse(Map.of())).when(this.configuration).getIndexResolver();
+		doReturn(Map.of("index", userManager)).when(this.configuration).getUserManagers();
+		doReturn(new IndexTaskExecutor(Runnable::run)).when(this.configuration).getIndexTaskExecutor();
+
+		DistributableSession subject = this.createSession();
+		subject.setAttribute("bar", "baz");
+		subject.close();
+
+		// Sessions without indexes must not contain any internal attribute
+		assertThat(this.attributes).containsOnlyKeys("bar");
+
+		subject = this.createSession();
+		subject.setAttribute("principal", "user");
+		subject.close();
+
+		assertThat(this.attributes).containsEntry(DistributableImmutableSession.INDEXES_ATTRIBUTE_NAME, Map.of("index", "user"));
+		verify(userManager).createUser("user", null);
+
+		subject = this.createSession();
+		subject.removeAttribute("principal");
+		subject.close();
+
+		assertThat(this.attributes).containsOnlyKeys("bar");
+		verify(userManager).findUser("user");
+	}
+
+	@Test
+	public void internalAttributes() {
+		DistributableSession subject = this.createSession();
+
+		for (String name : DistributableImmutableSession.INTERNAL_ATTRIBUTE_NAMES) {
+			assertThatThrownBy(() -> subject.setAttribute(name, Set.of())).isInstanceOf(IllegalArgumentException.class);
+			assertThatThrownBy(() -> subject.removeAttribute(name)).isInstanceOf(IllegalArgumentException.class);
+		}
+		assertThat(this.attributes).isEmpty();
+	}
+
+	@Test
+	public void modifyAfterClose() {
+		doReturn(false).when(this.session).isValid();
+		DistributableSession subject = this.createSession();
+
+		subject.close();
+
+		verify(this.closeTask).run();
+		verify(this.session).close();
+
+		// Modifications following close must not be silently discarded
+		assertThatThrownBy(() -> subject.setAttribute("bar", "baz")).isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> subject.removeAttribute("bar")).isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> subject.setMaxInactiveInterval(Duration.ZERO)).isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(subject::changeSessionId).isInstanceOf(IllegalStateException.class);
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.spring.session;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpSessionBindingEvent;
+import jakarta.servlet.http.HttpSessionBindingListener;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.session.IndexResolver;
+import org.springframework.session.events.SessionDestroyedEvent;
+import org.wildfly.clustering.session.ImmutableSession;
+import org.wildfly.clustering.session.ImmutableSessionMetaData;
+import org.wildfly.clustering.session.SessionManager;
+
+/**
+ * Unit test for {@link ImmutableSessionDestroyAction}.
+ * @author Paul Ferraro
+ */
+public class ImmutableSessionDestroyActionTestCase {
+	@SuppressWarnings("unchecked")
+	private final SessionManager<Void> manager = mock(SessionManager.class);
+	private final ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+	private final ServletContext context = mock(ServletContext.class);
+	private final UserConfiguration configuration = mock(UserConfiguration.class);
+	private final ImmutableSession session = mock(ImmutableSession.class);
+	private final Map<String, Object> attributes = new HashMap<>();
+	private final HttpSessionBindingListener listener = mock(HttpSessionBindingListener.class);
+	private final HttpSessionBindingListener untrackedListener = mock(HttpSessionBindingListener.class);
+
+	@BeforeEach
+	public void init() {
+		doReturn("foo").when(this.session).getId();
+		doReturn(true).when(this.session).isValid();
+		doReturn(mock(ImmutableSessionMetaData.class)).when(this.session).getMetaData();
+		doReturn(this.attributes).when(this.session).getAttributes();
+		doReturn((IndexResolver<org.springframework.session.Session>) session -> Map.of()).when(this.configuration).getIndexResolver();
+		doReturn(Map.of()).when(this.configuration).getUserManagers();
+		doReturn(IndexTaskExecutor.CALLER_RUNS).when(this.configuration).getIndexTaskExecutor();
+
+		this.attributes.put("listener", this.listener);
+		this.attributes.put("untracked", this.untrackedListener);
+		this.attributes.put("bar", "baz");
+	}
+
+	private void destroy() {
+		new ImmutableSessionDestroyAction<>(this.manager, this.publisher, this.context, this.configuration).accept(this.session, SessionDestroyedEvent::new);
+	}
+
+	@Test
+	public void tracked() {
+		this.attributes.put(DistributableImmutableSession.BINDING_LISTENER_ATTRIBUTE_NAMES, Set.of("listener"));
+
+		this.destroy();
+
+		// Only tracked binding listeners are read
+		verify(this.listener).valueUnbound(any(HttpSessionBindingEvent.class));
+		verify(this.untrackedListener, never()).valueUnbound(any());
+		verify(this.publisher).publishEvent(any(SessionDestroyedEvent.class));
+	}
+
+	@Test
+	public void untracked() {
+		// Session created by a prior version, or whose attributes were written directly, does not track its binding listeners
+		this.destroy();
+
+		// Every binding listener must be notified
+		verify(this.listener).valueUnbound(any(HttpSessionBindingEvent.class));
+		verify(this.untrackedListener).valueUnbound(any(HttpSessionBindingEvent.class));
+		verify(this.publisher).publishEvent(any(SessionDestroyedEvent.class));
+	}
+}
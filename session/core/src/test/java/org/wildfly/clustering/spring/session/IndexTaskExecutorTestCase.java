@@ -0,0 +1,79 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.spring.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link IndexTaskExecutor}.
+ * @author Paul Ferraro
+ */
+public class IndexTaskExecutorTestCase {
+
+	@Test
+	public void callerRuns() {
+		Thread caller = Thread.currentThread();
+		List<Thread> threads = new CopyOnWriteArrayList<>();
+		Runnable task = () -> threads.add(Thread.currentThread());
+
+		IndexTaskExecutor.CALLER_RUNS.execute(List.of(task, task, task));
+
+		assertThat(threads).hasSize(3).containsOnly(caller);
+	}
+
+	@Test
+	public void rejected() {
+		Thread caller = Thread.currentThread();
+		AtomicReference<Thread> thread = new AtomicReference<>();
+		AtomicInteger count = new AtomicInteger();
+
+		new IndexTaskExecutor(task -> {
+			throw new RejectedExecutionException();
+		}).execute(List.of(count::incrementAndGet, () -> thread.set(Thread.currentThread())));
+
+		// Rejected task must run on the calling thread
+		assertThat(count).hasValue(1);
+		assertThat(thread).hasValue(caller);
+	}
+
+	@Test
+	public void failures() {
+		RuntimeException first = new IllegalStateException();
+		RuntimeException second = new IllegalArgumentException();
+		AtomicInteger count = new AtomicInteger();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			IndexTaskExecutor indexExecutor = new IndexTaskExecutor(executor);
+
+			// Failure of the first task must not mask failure of the remaining tasks, nor skip awaiting them
+			assertThatThrownBy(() -> indexExecutor.execute(List.of(() -> {
+				throw first;
+			}, () -> {
+				count.incrementAndGet();
+				throw second;
+			}, count::incrementAndGet))).isSameAs(first).hasSuppressedException(second);
+			assertThat(count).hasValue(2);
+
+			// Failure of a remaining task must propagate unwrapped
+			assertThatThrownBy(() -> indexExecutor.execute(List.of(count::incrementAndGet, () -> {
+				throw second;
+			}))).isSameAs(second);
+			assertThat(count).hasValue(3);
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
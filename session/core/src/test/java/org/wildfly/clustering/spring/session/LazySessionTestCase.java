@@ -0,0 +1,79 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.spring.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link LazySession}.
+ * @author Paul Ferraro
+ */
+public class LazySessionTestCase {
+
+	@Test
+	public void maxInactiveInterval() {
+		@SuppressWarnings("unchecked")
+		BiFunction<String, Instant, SpringSession> factory = mock(BiFunction.class);
+		Runnable closeTask = mock(Runnable.class);
+		Duration defaultTimeout = Duration.ofMinutes(30);
+
+		LazySession session = new LazySession(() -> "foo", factory, closeTask, Optional.of(defaultTimeout));
+
+		// Uncreated session must report the timeout it will have once created
+		assertThat(session.getMaxInactiveInterval()).isEqualTo(defaultTimeout);
+
+		Duration timeout = Duration.ofMinutes(10);
+		session.setMaxInactiveInterval(timeout);
+
+		assertThat(session.getMaxInactiveInterval()).isEqualTo(timeout);
+
+		// Neither should trigger session creation
+		verifyNoInteractions(factory);
+
+		SpringSession createdSession = mock(SpringSession.class);
+		doReturn(createdSession).when(factory).apply(eq("foo"), any());
+		doReturn(timeout).when(createdSession).getMaxInactiveInterval();
+
+		session.setAttribute("bar", "baz");
+
+		verify(createdSession).setMaxInactiveInterval(timeout);
+		verify(createdSession).setAttribute("bar", "baz");
+		assertThat(session.getMaxInactiveInterval()).isEqualTo(timeout);
+
+		session.close();
+
+		verify(createdSession).close();
+		verifyNoInteractions(closeTask);
+	}
+
+	@Test
+	public void noDefaultMaxInactiveInterval() {
+		@SuppressWarnings("unchecked")
+		BiFunction<String, Instant, SpringSession> factory = mock(BiFunction.class);
+		Runnable closeTask = mock(Runnable.class);
+
+		LazySession session = new LazySession(() -> "foo", factory, closeTask, Optional.empty());
+
+		assertThat(session.getMaxInactiveInterval()).isEqualTo(Duration.ZERO);
+
+		session.close();
+
+		verify(closeTask).run();
+		verifyNoInteractions(factory);
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.spring.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.wildfly.clustering.session.ImmutableSession;
+import org.wildfly.clustering.session.ImmutableSessionMetaData;
+import org.wildfly.clustering.spring.context.SessionAccessRecorder;
+
+/**
+ * Unit test for {@link ReadOnlySession}.
+ * @author Paul Ferraro
+ */
+public class ReadOnlySessionTestCase {
+
+	private final ImmutableSession session = mock(ImmutableSession.class);
+	private final ImmutableSessionMetaData metaData = mock(ImmutableSessionMetaData.class);
+	private final Runnable closeTask = mock(Runnable.class);
+	@SuppressWarnings("unchecked")
+	private final Function<Instant, SpringSession> upgrader = mock(Function.class);
+	private final SpringSession mutableSession = mock(SpringSession.class);
+
+	@BeforeEach
+	public void init() {
+		doReturn("foo").when(this.session).getId();
+		doReturn(this.metaData).when(this.session).getMetaData();
+		doReturn(Map.of("bar", "baz")).when(this.session).getAttributes();
+		doReturn(Optional.of(Instant.now())).when(this.metaData).getLastAccessTime();
+		doReturn(Optional.of(Duration.ofMinutes(30))).when(this.metaData).getMaxIdle();
+	}
+
+	@Test
+	public void read() {
+		ReadOnlySession session = new ReadOnlySession(this.session, this.closeTask, new SessionAccessRecorder(Duration.ofMinutes(1)), this.upgrader);
+
+		assertThat(session.getId()).isEqualTo("foo");
+		assertThat(session.<String>getAttribute("bar")).isEqualTo("baz");
+		assertThat(session.getMaxInactiveInterval()).isEqualTo(Duration.ofMinutes(30));
+
+		// Neither removing a non-existent attribute, nor setting the current timeout, modifies the session
+		session.removeAttribute("qux");
+		session.setMaxInactiveInterval(Duration.ofMinutes(30));
+
+		assertThat(session.isUpgraded()).isFalse();
+
+		session.close();
+
+		// Session was accessed within the configured granularity, thus access need not be recorded
+		verifyNoInteractions(this.upgrader);
+		verify(this.closeTask).run();
+	}
+
+	@Test
+	public void recordAccess() {
+		doReturn(this.mutableSession).when(this.upgrader).apply(any());
+
+		ReadOnlySession session = new ReadOnlySession(this.session, this.closeTask, new SessionAccessRecorder(Duration.ZERO), this.upgrader);
+
+		assertThat(session.<String>getAttribute("bar")).isEqualTo("baz");
+
+		session.close();
+
+		// Access must be recorded via a mutable session
+		verify(this.upgrader).apply(any());
+		verify(this.mutableSession).close();
+		verify(this.closeTask).run();
+	}
+
+	@Test
+	public void upgrade() {
+		doReturn(this.mutableSession).when(this.upgrader).apply(any());
+		doReturn("qux").when(this.mutableSession).changeSessionId();
+		doReturn("qux").when(this.mutableSession).getId();
+		doReturn("value").when(this.mutableSession).getAttribute("bar");
+
+		ReadOnlySession session = new ReadOnlySession(this.session, this.closeTask, new SessionAccessRecorder(Duration.ofMinutes(1)), this.upgrader);
+
+		session.setAttribute("bar", "value");
+
+		assertThat(session.isUpgraded()).isTrue();
+		verify(this.mutableSession).setAttribute("bar", "value");
+
+		// Subsequent reads must see prior writes
+		assertThat(session.<String>getAttribute("bar")).isEqualTo("value");
+
+		// Changing the identifier must not be ignored
+		assertThat(session.changeSessionId()).isEqualTo("qux");
+		assertThat(session.getId()).isEqualTo("qux");
+
+		session.close();
+		session.close();
+
+		verify(this.upgrader).apply(any());
+		verify(this.mutableSession).close();
+		verify(this.closeTask).run();
+	}
+
+	@Test
+	public void invalidate() {
+		doReturn(this.mutableSession).when(this.upgrader).apply(any());
+
+		ReadOnlySession session = new ReadOnlySession(this.session, this.closeTask, new SessionAccessRecorder(Duration.ofMinutes(1)), this.upgrader);
+
+		session.invalidate();
+
+		verify(this.mutableSession).invalidate();
+		verify(this.closeTask).run();
+	}
+
+	@Test
+	public void upgradeRemovedSession() {
+		ReadOnlySession session = new ReadOnlySession(this.session, this.closeTask, new SessionAccessRecorder(Duration.ofMinutes(1)), this.upgrader);
+
+		// Session no longer exists
+		assertThatThrownBy(() -> session.setAttribute("bar", "value")).isInstanceOf(IllegalStateException.class);
+
+		session.close();
+
+		verify(this.closeTask).run();
+
+		// Closed session cannot be upgraded
+		assertThatThrownBy(session::changeSessionId).isInstanceOf(IllegalStateException.class);
+		verify(this.upgrader).apply(any());
+		verifyNoMoreInteractions(this.upgrader);
+	}
+}
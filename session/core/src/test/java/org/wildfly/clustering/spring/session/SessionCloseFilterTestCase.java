@@ -0,0 +1,144 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.spring.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Unit test for {@link SessionCloseFilter}.
+ * @author Paul Ferraro
+ */
+public class SessionCloseFilterTestCase {
+
+	private final SessionCloseFilter filter = new SessionCloseFilter();
+	private final HttpServletRequest request = mock(HttpServletRequest.class);
+	private final HttpServletResponse response = mock(HttpServletResponse.class);
+	private final AtomicBoolean committed = new AtomicBoolean(false);
+	private final SpringSession session = mock(SpringSession.class);
+
+	@BeforeEach
+	public void init() {
+		RequestContextHolder.resetRequestAttributes();
+		Map<String, Object> attributes = new HashMap<>();
+		doAnswer(invocation -> attributes.get(invocation.getArgument(0))).when(this.request).getAttribute(anyString());
+		doAnswer(invocation -> attributes.put(invocation.getArgument(0), invocation.getArgument(1))).when(this.request).setAttribute(anyString(), any());
+		doAnswer(invocation -> this.committed.get()).when(this.response).isCommitted();
+		doReturn("foo").when(this.session).getId();
+	}
+
+	private void register() {
+		SessionRegistry registry = SessionRegistry.current();
+		doAnswer(invocation -> {
+			registry.remove(this.session);
+			return null;
+		}).when(this.session).close();
+		registry.add(this.session);
+	}
+
+	@Test
+	public void closeOnCompletion() throws Exception {
+		FilterChain chain = (request, response) -> {
+			this.register();
+			// Saves by Spring Session must be deferred
+			assertThat(SessionRegistry.current().isCloseDeferred()).isTrue();
+		};
+
+		this.filter.doFilterInternal(this.request, this.response, chain);
+
+		verify(this.session).close();
+		assertThat(this.filter.getSessionCount()).isEqualTo(1L);
+		// Registry must not remain deferred for subsequent dispatches
+		assertThat(SessionRegistry.bind(this.request).isCloseDeferred()).isFalse();
+		SessionRegistry.current().unbind();
+	}
+
+	@Test
+	public void closeOnSendError() throws Exception {
+		FilterChain chain = (request, response) -> {
+			this.register();
+			((HttpServletResponse) response).sendError(HttpServletResponse.SC_NOT_FOUND);
+			verify(this.session).close();
+		};
+
+		this.filter.doFilterInternal(this.request, this.response, chain);
+
+		verify(this.response).sendError(HttpServletResponse.SC_NOT_FOUND);
+	}
+
+	@Test
+	public void closeOnOutputStreamOverflow() throws Exception {
+		ServletOutputStream output = mock(ServletOutputStream.class);
+		doReturn(output).when(this.response).getOutputStream();
+		// Emulate a container commit, e.g. due to buffer overflow
+		doAnswer(invocation -> {
+			this.committed.set(true);
+			return null;
+		}).when(output).write(any(byte[].class), anyInt(), anyInt());
+
+		FilterChain chain = (request, response) -> {
+			this.register();
+			ServletOutputStream stream = response.getOutputStream();
+			stream.write(1);
+			verify(this.session, never()).close();
+			stream.write(new byte[] { 1, 2, 3 }, 0, 3);
+			verify(this.session).close();
+		};
+
+		this.filter.doFilterInternal(this.request, this.response, chain);
+
+		verify(this.session).close();
+	}
+
+	@Test
+	public void closeOnWriterContentLength() throws Exception {
+		StringWriter body = new StringWriter();
+		doReturn(new PrintWriter(body) {
+			@Override
+			public void write(String value, int offset, int length) {
+				super.write(value, offset, length);
+				// Emulate a container commit once the declared content length was written
+				SessionCloseFilterTestCase.this.committed.set(body.getBuffer().length() >= 5);
+			}
+		}).when(this.response).getWriter();
+
+		FilterChain chain = (request, response) -> {
+			this.register();
+			ServletResponse wrapper = response;
+			PrintWriter writer = wrapper.getWriter();
+			writer.print("foo");
+			verify(this.session, never()).close();
+			writer.print("bar");
+			verify(this.session).close();
+		};
+
+		this.filter.doFilterInternal(this.request, this.response, chain);
+
+		assertThat(body.toString()).isEqualTo("foobar");
+	}
+}
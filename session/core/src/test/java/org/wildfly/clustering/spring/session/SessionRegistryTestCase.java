@@ -0,0 +1,135 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.spring.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Unit test for {@link SessionRegistry}.
+ * @author Paul Ferraro
+ */
+public class SessionRegistryTestCase {
+
+	@BeforeEach
+	public void init() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	public void threadRegistry() {
+		SessionRegistry registry = SessionRegistry.current();
+		// An empty registry must not be bound to the current thread
+		assertThat(SessionRegistry.current()).isNotSameAs(registry);
+
+		SpringSession session = mockSession("foo");
+		registry.add(session);
+
+		assertThat(SessionRegistry.current()).isSameAs(registry);
+		assertThat(SessionRegistry.findSession("foo")).isSameAs(session);
+		assertThat(SessionRegistry.findSession("bar")).isNull();
+
+		registry.remove(session);
+
+		// Registry must be unbound from the current thread once empty
+		assertThat(SessionRegistry.findSession("foo")).isNull();
+		assertThat(SessionRegistry.current()).isNotSameAs(registry);
+	}
+
+	@Test
+	public void requestRegistry() {
+		HttpServletRequest request = mockRequest();
+		SessionRegistry registry = SessionRegistry.bind(request);
+		try {
+			assertThat(SessionRegistry.bind(request)).isSameAs(registry);
+			assertThat(SessionRegistry.current()).isSameAs(registry);
+			assertThat(registry.matches(request::equals)).isTrue();
+
+			assertThat(registry.isCloseDeferred()).isFalse();
+			registry.deferClose(duration -> {});
+			assertThat(registry.isCloseDeferred()).isTrue();
+
+			SpringSession session = mockSession("foo");
+			doAnswer(invocation -> {
+				registry.remove(session);
+				return null;
+			}).when(session).close();
+			registry.add(session);
+
+			assertThat(SessionRegistry.findSession("foo")).isSameAs(session);
+
+			registry.close();
+
+			verify(session).close();
+			assertThat(registry.get("foo")).isNull();
+
+			registry.cancelDeferredClose();
+			assertThat(registry.isCloseDeferred()).isFalse();
+		} finally {
+			registry.unbind();
+		}
+		assertThat(SessionRegistry.findSession("foo")).isNull();
+	}
+
+	@Test
+	public void closeOnComplete() {
+		HttpServletRequest request = mockRequest();
+		AsyncContext context = mock(AsyncContext.class);
+		doReturn(true).when(request).isAsyncStarted();
+		doReturn(context).when(request).getAsyncContext();
+
+		SessionRegistry registry = SessionRegistry.bind(request);
+		try {
+			assertThat(registry.isAsyncStarted()).isTrue();
+
+			registry.closeOnComplete();
+			registry.closeOnComplete();
+
+			// Listener must only be registered once
+			verify(context, times(1)).addListener(any(AsyncListener.class));
+
+			// Session referenced following dispatch, e.g. by an asynchronous thread
+			SpringSession session = mockSession("foo");
+			registry.add(session);
+
+			registry.onComplete(null);
+
+			verify(session).close();
+		} finally {
+			registry.unbind();
+		}
+	}
+
+	private static SpringSession mockSession(String id) {
+		SpringSession session = mock(SpringSession.class);
+		doReturn(id).when(session).getId();
+		return session;
+	}
+
+	private static HttpServletRequest mockRequest() {
+		HttpServletRequest request = mock(HttpServletRequest.class);
+		Map<String, Object> attributes = new HashMap<>();
+		doAnswer(invocation -> attributes.get(invocation.getArgument(0))).when(request).getAttribute(anyString());
+		doAnswer(invocation -> attributes.put(invocation.getArgument(0), invocation.getArgument(1))).when(request).setAttribute(anyString(), any());
+		return request;
+	}
+}
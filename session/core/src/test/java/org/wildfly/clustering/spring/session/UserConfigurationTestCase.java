@@ -0,0 +1,58 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.clustering.spring.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.IndexResolver;
+import org.springframework.session.PrincipalNameIndexResolver;
+import org.springframework.session.Session;
+
+/**
+ * Unit test for {@link UserConfiguration}.
+ * @author Paul Ferraro
+ */
+public class UserConfigurationTestCase {
+
+	@Test
+	public void emptyIndexResolver() {
+		assertThat(createConfiguration(EmptyIndexResolver.INSTANCE).getIndexedAttributeNames()).hasValue(Set.of());
+	}
+
+	@Test
+	public void principalNameIndexResolver() {
+		assertThat(createConfiguration(new PrincipalNameIndexResolver<>()).getIndexedAttributeNames()).hasValueSatisfying(names -> assertThat(names).containsExactlyInAnyOrder(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "SPRING_SECURITY_CONTEXT"));
+	}
+
+	@Test
+	public void customIndexName() {
+		// Principal name is read from the attribute named by the index name
+		assertThat(createConfiguration(new PrincipalNameIndexResolver<>("foo")).getIndexedAttributeNames()).hasValueSatisfying(names -> assertThat(names).containsExactlyInAnyOrder("foo", "SPRING_SECURITY_CONTEXT"));
+	}
+
+	@Test
+	public void customIndexResolver() {
+		IndexResolver<Session> resolver = session -> Map.of("foo", session.getAttribute("bar"));
+		// Any attribute might contribute to the indexes of a custom resolver
+		assertThat(createConfiguration(resolver).getIndexedAttributeNames()).isEmpty();
+
+		// Including a subclass of a default resolver
+		assertThat(createConfiguration(new PrincipalNameIndexResolver<>() {}).getIndexedAttributeNames()).isEmpty();
+	}
+
+	private static UserConfiguration createConfiguration(IndexResolver<Session> resolver) {
+		UserConfiguration configuration = mock(UserConfiguration.class, CALLS_REAL_METHODS);
+		doReturn(resolver).when(configuration).getIndexResolver();
+		return configuration;
+	}
+}
@@ -5,7 +5,16 @@
 
 package org.wildfly.clustering.spring.web;
 
+import java.util.Optional;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.StampedLock;
@@ -23,9 +32,12 @@ import org.wildfly.clustering.function.UnaryOperator;
 import org.wildfly.clustering.session.ImmutableSession;
 import org.wildfly.clustering.session.Session;
 import org.wildfly.clustering.session.SessionManager;
+import org.wildfly.clustering.spring.context.SessionAccessRecorder;
+import org.wildfly.clustering.spring.context.SharedSessionRegistry;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 
 /**
@@ -36,11 +48,23 @@ import reactor.core.scheduler.Schedulers;
  */
 public class DistributableWebSessionManager implements WebSessionManager, DisposableBean {
 	private static final System.Logger LOGGER = System.getLogger(DistributableWebSessionManager.class.getPackageName());
-	private static final AtomicInteger COUNTER = new AtomicInteger(0);
 	private static final UnaryOperator<Session<Void>> VALIDATOR = UnaryOperator.when(ImmutableSession.VALID, UnaryOperator.identity(), UnaryOperator.of(Session::close, Supplier.of(null)));
 
 	private final SessionManager<Void> manager;
 	private final WebSessionIdResolver identifierResolver;
+	private final SessionAccessRecorder accessRecorder;
+	// Thread pool owned by this session manager, if no blocking executor was configured
+	private final ExecutorService executor;
+	// Single thread with a bounded queue, to which blocking operations rejected by the blocking executor are handed off
+	private final ExecutorService overflowExecutor;
+	// Scheduler for operations that block, e.g. session close
+	private final Scheduler scheduler;
+	private final SessionCloseQueue closeQueue;
+	private final SharedSessionRegistry sharedSessions;
+	private final Function<String, CompletionStage<Session<Void>>> finder;
+	private final AtomicInteger queuedTasks = new AtomicInteger(0);
+	private final AtomicInteger activeWorkers = new AtomicInteger(0);
+	private final AtomicLong rejectedTasks = new AtomicLong(0L);
 	private final StampedLock lifecycleLock = new StampedLock();
 
 	/**
@@ -50,16 +74,138 @@ public class DistributableWebSessionManager implements WebSessionManager, Dispos
 	public DistributableWebSessionManager(DistributableWebSessionManagerConfiguration configuration) {
 		this.manager = configuration.getSessionManager();
 		this.identifierResolver = configuration.getSessionIdentifierResolver();
-		COUNTER.incrementAndGet();
+		this.accessRecorder = configuration.getSessionAccessRecorder();
+		Optional<Executor> blockingExecutor = configuration.getBlockingExecutor();
+		this.executor = blockingExecutor.isPresent() ? null : createExecutor(configuration);
+		this.overflowExecutor = createOverflowExecutor(configuration);
+		Executor executor = blockingExecutor.orElse(this.executor);
+		this.scheduler = Schedulers.fromExecutor(new Executor() {
+			@Override
+			public void execute(Runnable task) {
+				DistributableWebSessionManager.this.execute(executor, task);
+			}
+		});
+		this.sharedSessions = configuration.isSessionSharing() ? new SharedSessionRegistry(this.manager) : null;
+		this.finder = (this.sharedSessions != null) ? this.sharedSessions::findSessionAsync : this.manager::findSessionAsync;
+		this.closeQueue = new SessionCloseQueue(this.scheduler, Schedulers.fromExecutor(this.overflowExecutor), configuration.getCloseQueueCapacity(), configuration.getCloseOverflowPolicy());
+	}
+
+	private static ExecutorService createExecutor(DistributableWebSessionManagerConfiguration configuration) {
+		String name = configuration.getDeploymentName();
+		AtomicInteger threadCount = new AtomicInteger(0);
+		ThreadFactory factory = createThreadFactory(() -> String.format("%s-session-%d", name, threadCount.incrementAndGet()));
+		int threadCap = configuration.getBlockingThreadCap();
+		// Idle threads expire, as with the bounded elastic scheduler
+		// Tasks rejected by a saturated thread pool are handed off to the overflow executor
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCap, threadCap, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(configuration.getBlockingQueueCapacity()), factory, new ThreadPoolExecutor.AbortPolicy());
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	private static ExecutorService createOverflowExecutor(DistributableWebSessionManagerConfiguration configuration) {
+		ThreadFactory factory = createThreadFactory(Supplier.of(String.format("%s-session-overflow", configuration.getDeploymentName())));
+		// Queue is bounded by the number of sessions with pending closes, i.e. the primary users of this executor
+		// Tasks rejected by a saturated overflow thread apply backpressure to their caller
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(configuration.getCloseQueueCapacity()), factory, new ThreadPoolExecutor.AbortPolicy());
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	private static ThreadFactory createThreadFactory(Supplier<String> name) {
+		return new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable task) {
+				Thread thread = new Thread(task, name.get());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+
+	private void execute(Executor executor, Runnable task) {
+		this.queuedTasks.incrementAndGet();
+		Runnable countedTask = new Runnable() {
+			@Override
+			public void run() {
+				DistributableWebSessionManager.this.queuedTasks.decrementAndGet();
+				DistributableWebSessionManager.this.activeWorkers.incrementAndGet();
+				try {
+					task.run();
+				} finally {
+					DistributableWebSessionManager.this.activeWorkers.decrementAndGet();
+				}
+			}
+		};
+		try {
+			try {
+				executor.execute(countedTask);
+			} catch (RejectedExecutionException e) {
+				// Blocking executor is saturated - hand off to overflow thread, rather than discard task or block the calling thread
+				this.rejectedTasks.incrementAndGet();
+				try {
+					this.overflowExecutor.execute(countedTask);
+				} catch (RejectedExecutionException overflow) {
+					// Overflow thread is also saturated - apply backpressure
+					// A calling thread that may block runs the task itself, otherwise the rejection propagates to the subscriber
+					if (Schedulers.isInNonBlockingThread()) {
+						throw overflow;
+					}
+					countedTask.run();
+				}
+			}
+		} catch (RuntimeException | Error e) {
+			this.queuedTasks.decrementAndGet();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the write-behind queue for session close, exposing its statistics.
+	 * @return the session close queue
+	 */
+	public SessionCloseQueue getCloseQueue() {
+		return this.closeQueue;
+	}
+
+	/**
+	 * Returns the registry of sessions shared among concurrent requests, exposing its statistics, if session sharing is enabled.
+	 * @return an optional shared session registry
+	 */
+	public Optional<SharedSessionRegistry> getSharedSessionRegistry() {
+		return Optional.ofNullable(this.sharedSessions);
+	}
+
+	/**
+	 * Returns the number of blocking session operations awaiting execution.
+	 * @return the number of queued blocking session operations
+	 */
+	public int getQueuedTaskCount() {
+		return this.queuedTasks.get();
+	}
+
+	/**
+	 * Returns the number of blocking session operations rejected by the blocking executor, and thus handed off to an overflow thread, or, if the overflow thread is also saturated, run by a blocking calling thread or rejected.
+	 * @return the number of rejected blocking session operations
+	 */
+	public long getRejectedTaskCount() {
+		return this.rejectedTasks.get();
+	}
+
+	/**
+	 * Returns the number of blocking session operations currently executing.
+	 * @return the number of active blocking session operations
+	 */
+	public int getActiveWorkerCount() {
+		return this.activeWorkers.get();
 	}
 
 	@Override
 	public Mono<WebSession> getSession(ServerWebExchange exchange) {
+		// Look up each resolved identifier in order, stopping at the first valid session, so that stale identifiers (e.g. from duplicate cookies) incur no redundant lookups
 		return Flux.fromIterable(this.identifierResolver.resolveSessionIds(exchange))
-				.publishOn(Schedulers.boundedElastic())
-				.flatMapSequential(this::findSessionPublisher)
+				.concatMap(this::findSessionPublisher)
 				.next()
-				.switchIfEmpty(Mono.fromSupplier(this.manager.getIdentifierFactory()).map(id -> new LazyWebSession(this.manager, id, this.getSessionCloseTask())))
+				.switchIfEmpty(Mono.fromSupplier(this.manager.getIdentifierFactory()).map(id -> new LazyWebSession(this.manager, id, this.getSessionCloseTask(), this.scheduler)))
 				.doOnNext(session -> exchange.getResponse().beforeCommit(Supplier.of(Mono.defer(() -> {
 					if (session.isStarted() && session.isValid()) {
 						this.identifierResolver.setSessionId(exchange, session.getId());
@@ -73,17 +219,39 @@ public class DistributableWebSessionManager implements WebSessionManager, Dispos
 	}
 
 	private Mono<SpringWebSession> findSessionPublisher(String id) {
-		return this.getSessionPublisher(Supplier.of(id).thenApply(this.manager::findSessionAsync));
+		return this.getSessionPublisher(Supplier.of(id).thenApply(this.finder));
 	}
 
 	private Mono<SpringWebSession> getSessionPublisher(Supplier<CompletionStage<Session<Void>>> factory) {
 		Runnable closeTask = this.getSessionCloseTask();
 		try {
-			return Mono.fromCompletionStage(factory.get())
-					.map(VALIDATOR)
-					.<SpringWebSession>map(session -> new StartedWebSession(this.manager, session, closeTask))
+			CompletionStage<Session<Void>> stage = factory.get();
+			// Arbitrates between the publication of a session and the cancellation of its lookup
+			AtomicBoolean claimed = new AtomicBoolean(false);
+			// Cancellation must not propagate to the pending lookup, so that any session it finds can be closed below
+			return Mono.fromFuture(stage.toCompletableFuture(), true)
+					// Session lookup may complete via a non-blocking thread of the cache, e.g. a Netty event loop of a remote cache
+					// Subsequent session access blocks, thus must never run via such a thread
+					.publishOn(this.scheduler)
+					.<SpringWebSession>handle((session, sink) -> {
+						if (claimed.compareAndSet(false, true)) {
+							Session<Void> validSession = VALIDATOR.apply(session);
+							if (validSession != null) {
+								sink.next(new StartedWebSession(this.manager, validSession, closeTask, this.accessRecorder, this.scheduler, this.closeQueue));
+							}
+						}
+					})
 					.switchIfEmpty(Mono.fromRunnable(closeTask))
-					.doOnError(Consumer.of(DistributableWebSessionManager::log, closeTask));
+					.doOnError(Consumer.of(DistributableWebSessionManager::log, closeTask))
+					// If cancelled before publication, close any session found by the pending lookup and release its lock
+					.doOnCancel(() -> stage.whenCompleteAsync((session, exception) -> {
+						if (claimed.compareAndSet(false, true)) {
+							if (session != null) {
+								session.close();
+							}
+							closeTask.run();
+						}
+					}, this.scheduler::schedule));
 		} catch (RuntimeException | Error e) {
 			closeTask.run();
 			throw e;
@@ -97,9 +265,12 @@ public class DistributableWebSessionManager implements WebSessionManager, Dispos
 		} catch (InterruptedException e) {
 			Thread.currentThread().interrupt();
 		}
-		if (COUNTER.decrementAndGet() == 0) {
-			Schedulers.shutdownNow();
+		// Dispose only the resources owned by this session manager, allowing queued operations to complete
+		this.scheduler.dispose();
+		if (this.executor != null) {
+			this.executor.shutdown();
 		}
+		this.overflowExecutor.shutdown();
 	}
 
 	private static void log(Throwable exception) {
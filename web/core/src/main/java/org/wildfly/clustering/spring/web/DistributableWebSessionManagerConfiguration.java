@@ -5,14 +5,27 @@
 
 package org.wildfly.clustering.spring.web;
 
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
 import org.springframework.web.server.session.WebSessionIdResolver;
 import org.wildfly.clustering.session.SessionManager;
+import org.wildfly.clustering.spring.context.SessionAccessRecorder;
+
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Encapsulates the configuration of a Spring Web session manager.
  * @author Paul Ferraro
  */
 public interface DistributableWebSessionManagerConfiguration {
+	/**
+	 * Returns the name of the deployment associated with this session manager.
+	 * @return a deployment name
+	 */
+	String getDeploymentName();
+
 	/**
 	 * Returns the distributed session manager.
 	 * @return the distributed session manager.
@@ -24,4 +37,63 @@ public interface DistributableWebSessionManagerConfiguration {
 	 * @return the session identifier resolver.
 	 */
 	WebSessionIdResolver getSessionIdentifierResolver();
+
+	/**
+	 * Returns the recorder of session access.
+	 * By default, every session access is recorded.
+	 * @return the recorder of session access.
+	 */
+	default SessionAccessRecorder getSessionAccessRecorder() {
+		return new SessionAccessRecorder(Duration.ZERO);
+	}
+
+	/**
+	 * Returns the executor with which to run blocking session operations, if one was configured.
+	 * By default, blocking session operations run via a thread pool dedicated to this session manager.
+	 * @return an optional executor for blocking session operations
+	 */
+	default Optional<Executor> getBlockingExecutor() {
+		return Optional.empty();
+	}
+
+	/**
+	 * Returns the maximum number of threads of the thread pool dedicated to blocking session operations, if no blocking executor was configured.
+	 * @return a maximum number of threads
+	 */
+	default int getBlockingThreadCap() {
+		return Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE;
+	}
+
+	/**
+	 * Returns the maximum number of tasks queued by the thread pool dedicated to blocking session operations, if no blocking executor was configured.
+	 * @return a maximum number of queued tasks
+	 */
+	default int getBlockingQueueCapacity() {
+		return Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE;
+	}
+
+	/**
+	 * Returns the maximum number of sessions with a pending write-behind close.
+	 * @return a maximum number of sessions with a pending close
+	 */
+	default int getCloseQueueCapacity() {
+		return Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE;
+	}
+
+	/**
+	 * Returns the policy for handling session closes once the write-behind close queue is full.
+	 * @return a close queue overflow policy
+	 */
+	default SessionCloseQueue.OverflowPolicy getCloseOverflowPolicy() {
+		return SessionCloseQueue.OverflowPolicy.AWAIT;
+	}
+
+	/**
+	 * Indicates whether concurrent requests for the same session on this node should share a single open session.
+	 * If enabled, such requests do not serialize on the lock of the session, and may therefore observe each other's modifications to the session.
+	 * @return true, if concurrent requests should share a session, false otherwise.
+	 */
+	default boolean isSessionSharing() {
+		return false;
+	}
 }
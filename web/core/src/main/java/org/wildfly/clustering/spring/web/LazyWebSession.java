@@ -19,7 +19,7 @@ import org.wildfly.clustering.session.SessionManager;
 import org.wildfly.clustering.session.SessionMetaData;
 
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.Scheduler;
 
 /**
  * A distributable {@link org.springframework.web.server.WebSession} is not created until saved.
@@ -33,17 +33,20 @@ public class LazyWebSession implements SpringWebSession {
 	private final Map<String, Object> attributes = new ConcurrentHashMap<>();
 	private final AtomicReference<Optional<Duration>> timeout = new AtomicReference<>(Optional.empty());
 	private final Runnable closeTask;
+	private final Scheduler scheduler;
 
 	/**
 	 * Creates a new web session.
 	 * @param manager the associated session manager
 	 * @param id the identifier of the new session
 	 * @param closeTask a task to run on {@link #save()}
+	 * @param scheduler a scheduler for blocking operations
 	 */
-	public LazyWebSession(SessionManager<Void> manager, String id, Runnable closeTask) {
+	public LazyWebSession(SessionManager<Void> manager, String id, Runnable closeTask, Scheduler scheduler) {
 		this.manager = manager;
 		this.id = new AtomicReference<>(id);
 		this.closeTask = closeTask;
+		this.scheduler = scheduler;
 	}
 
 	@Override
@@ -101,7 +104,8 @@ public class LazyWebSession implements SpringWebSession {
 			return Mono.fromRunnable(this.closeTask);
 		}
 		return Mono.fromCompletionStage(this.manager.createSessionAsync(this.id.get()))
-				.publishOn(Schedulers.boundedElastic())
+				// Populating and closing the new session blocks
+				.publishOn(this.scheduler)
 				.doOnNext(newSession -> {
 					try (Session<Void> session = newSession) {
 						session.getAttributes().putAll(this.attributes);
@@ -0,0 +1,262 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.clustering.spring.web;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * A bounded write-behind queue for the blocking close of distributable sessions.
+ * The closes of a given session are run sequentially, in submission order, by a single drain of that session, which continues until no closes of that session remain pending.
+ * Closes of the same session submitted while a drain of that session is pending or running are merged into that drain, and a close task submitted more than once runs only once.
+ * Once the number of sessions with pending closes reaches the configured capacity, subsequent closes are handled according to the configured {@link OverflowPolicy}.
+ * Closes rejected by the scheduler run via the fallback scheduler.
+ * Closes rejected by both schedulers run via the submitting thread, even if non-blocking, since a session that is never closed would remain locked, thus closes are never discarded.
+ * Any exception thrown by a close is logged.
+ * @author Paul Ferraro
+ */
+public class SessionCloseQueue {
+	private static final System.Logger LOGGER = System.getLogger(SessionCloseQueue.class.getPackageName());
+
+	/**
+	 * Policies for handling a session close submitted to a full queue.
+	 */
+	public enum OverflowPolicy {
+		/** Runs the close via the scheduler, but defers completion of the submitting publisher until the close completes. */
+		AWAIT,
+		/** Runs the close synchronously within the submitting thread, unless that thread is non-blocking, in which case the close behaves as per {@link #AWAIT}. */
+		CALLER_RUNS,
+	}
+
+	private enum Submission {
+		SCHEDULED,
+		COALESCED,
+		REJECTED,
+	}
+
+	// Maps a session identifier to its pending close tasks, in submission order, each with its submission time
+	// An entry remains present, possibly empty, while a drain of its session is scheduled or running
+	private final Map<String, Map<Runnable, Long>> pending = new ConcurrentHashMap<>();
+	private final AtomicInteger backlog = new AtomicInteger(0);
+	private final AtomicLong coalescedCount = new AtomicLong(0L);
+	private final AtomicLong overflowCount = new AtomicLong(0L);
+	private final AtomicLong rejectedCount = new AtomicLong(0L);
+	private final AtomicLong closeCount = new AtomicLong(0L);
+	private final AtomicLong failedCount = new AtomicLong(0L);
+	private final AtomicLong totalCloseLatency = new AtomicLong(0L);
+	private final AtomicLong maxCloseLatency = new AtomicLong(0L);
+	private final Scheduler scheduler;
+	private final Scheduler fallbackScheduler;
+	private final int capacity;
+	private final OverflowPolicy policy;
+
+	/**
+	 * Creates a session close queue.
+	 * @param scheduler the scheduler used to run session closes
+	 * @param fallbackScheduler the scheduler used to run session closes rejected by the primary scheduler, whose threads may block
+	 * @param capacity the maximum number of sessions with pending closes
+	 * @param policy the policy for handling session closes submitted to a full queue
+	 */
+	public SessionCloseQueue(Scheduler scheduler, Scheduler fallbackScheduler, int capacity, OverflowPolicy policy) {
+		this.scheduler = scheduler;
+		this.fallbackScheduler = fallbackScheduler;
+		this.capacity = capacity;
+		this.policy = policy;
+	}
+
+	/**
+	 * Submits the specified close task for the session with the specified identifier.
+	 * The returned publisher completes once the task was queued, or, if the queue is full, as dictated by the overflow policy.
+	 * @param id a session identifier
+	 * @param task a blocking task that closes a session
+	 * @return a publisher that completes following submission of the specified task
+	 */
+	public Mono<Void> submit(String id, Runnable task) {
+		return Mono.defer(() -> {
+			switch (this.enqueue(id, task)) {
+				case COALESCED:
+					this.coalescedCount.incrementAndGet();
+					return Mono.empty();
+				case SCHEDULED:
+					Runnable drain = () -> this.drain(id);
+					try {
+						this.scheduler.schedule(drain);
+						return Mono.empty();
+					} catch (RejectedExecutionException e) {
+						this.rejectedCount.incrementAndGet();
+						// Drain via the fallback scheduler, deferring completion until all pending closes of this session complete
+						return this.fallback(drain);
+					}
+				default:
+					return this.overflow(task, System.nanoTime());
+			}
+		});
+	}
+
+	private Submission enqueue(String id, Runnable task) {
+		long submitted = System.nanoTime();
+		AtomicReference<Submission> submission = new AtomicReference<>(Submission.REJECTED);
+		this.pending.compute(id, (key, tasks) -> {
+			if (tasks != null) {
+				submission.set(Submission.COALESCED);
+				// Merge duplicate submissions of the same task
+				tasks.putIfAbsent(task, submitted);
+				return tasks;
+			}
+			if (this.backlog.incrementAndGet() > this.capacity) {
+				this.backlog.decrementAndGet();
+				return null;
+			}
+			submission.set(Submission.SCHEDULED);
+			Map<Runnable, Long> newTasks = new LinkedHashMap<>();
+			newTasks.put(task, submitted);
+			return newTasks;
+		});
+		return submission.get();
+	}
+
+	/**
+	 * Removes the pending tasks for the specified session, leaving an empty entry, so that concurrent submissions merge into the current drain.
+	 * If no tasks remain pending, the entry itself is removed, and the drain completes.
+	 */
+	private Map<Runnable, Long> dequeue(String id) {
+		AtomicReference<Map<Runnable, Long>> result = new AtomicReference<>(Map.of());
+		this.pending.computeIfPresent(id, (key, tasks) -> {
+			if (tasks.isEmpty()) {
+				this.backlog.decrementAndGet();
+				return null;
+			}
+			result.set(tasks);
+			return new LinkedHashMap<>();
+		});
+		return result.get();
+	}
+
+	private void drain(String id) {
+		Map<Runnable, Long> tasks = this.dequeue(id);
+		while (!tasks.isEmpty()) {
+			for (Map.Entry<Runnable, Long> entry : tasks.entrySet()) {
+				this.run(entry.getKey(), entry.getValue());
+			}
+			tasks = this.dequeue(id);
+		}
+	}
+
+	private Mono<Void> overflow(Runnable task, long submitted) {
+		this.overflowCount.incrementAndGet();
+		Runnable close = () -> this.run(task, submitted);
+		if ((this.policy == OverflowPolicy.CALLER_RUNS) && !Schedulers.isInNonBlockingThread()) {
+			return Mono.fromRunnable(close);
+		}
+		AtomicBoolean rejected = new AtomicBoolean(false);
+		return Mono.<Void>fromRunnable(close).subscribeOn(this.scheduler)
+				.onErrorResume(RejectedExecutionException.class, exception -> {
+					// Scheduler is saturated, thus run close via fallback scheduler
+					if (rejected.compareAndSet(false, true)) {
+						this.rejectedCount.incrementAndGet();
+					}
+					return this.fallback(close);
+				});
+	}
+
+	private Mono<Void> fallback(Runnable task) {
+		// If the fallback scheduler is also saturated, run via the subscribing thread, rather than discard
+		return Mono.<Void>fromRunnable(task).subscribeOn(this.fallbackScheduler).onErrorResume(RejectedExecutionException.class, exception -> Mono.fromRunnable(task));
+	}
+
+	private void run(Runnable task, long submitted) {
+		try {
+			task.run();
+		} catch (RuntimeException | Error e) {
+			this.failedCount.incrementAndGet();
+			LOGGER.log(System.Logger.Level.WARNING, e.getLocalizedMessage(), e);
+		} finally {
+			this.recordLatency(System.nanoTime() - submitted);
+		}
+	}
+
+	private void recordLatency(long nanos) {
+		this.closeCount.incrementAndGet();
+		this.totalCloseLatency.addAndGet(nanos);
+		this.maxCloseLatency.accumulateAndGet(nanos, Math::max);
+	}
+
+	/**
+	 * Returns the number of sessions with pending closes.
+	 * @return the number of sessions with pending closes
+	 */
+	public int getBacklog() {
+		return this.backlog.get();
+	}
+
+	/**
+	 * Returns the number of closes merged into a pending drain of the same session.
+	 * @return the number of coalesced closes
+	 */
+	public long getCoalescedCount() {
+		return this.coalescedCount.get();
+	}
+
+	/**
+	 * Returns the number of closes submitted to a full queue.
+	 * @return the number of overflowed closes
+	 */
+	public long getOverflowCount() {
+		return this.overflowCount.get();
+	}
+
+	/**
+	 * Returns the number of closes rejected by the scheduler, and thus run via the fallback scheduler.
+	 * @return the number of rejected closes
+	 */
+	public long getRejectedCount() {
+		return this.rejectedCount.get();
+	}
+
+	/**
+	 * Returns the number of completed closes, including failed closes.
+	 * @return the number of completed closes
+	 */
+	public long getCloseCount() {
+		return this.closeCount.get();
+	}
+
+	/**
+	 * Returns the number of closes that failed with an exception.
+	 * @return the number of failed closes
+	 */
+	public long getFailedCount() {
+		return this.failedCount.get();
+	}
+
+	/**
+	 * Returns the mean duration between the submission and completion of a close.
+	 * @return the mean close latency
+	 */
+	public Duration getMeanCloseLatency() {
+		long count = this.closeCount.get();
+		return (count > 0) ? Duration.ofNanos(this.totalCloseLatency.get() / count) : Duration.ZERO;
+	}
+
+	/**
+	 * Returns the maximum duration between the submission and completion of a close.
+	 * @return the maximum close latency
+	 */
+	public Duration getMaxCloseLatency() {
+		return Duration.ofNanos(this.maxCloseLatency.get());
+	}
+}
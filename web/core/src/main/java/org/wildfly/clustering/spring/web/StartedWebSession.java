@@ -10,7 +10,6 @@ import java.time.Instant;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
-import org.wildfly.clustering.function.Consumer;
 import org.wildfly.clustering.function.Function;
 import org.wildfly.clustering.server.util.BlockingReference;
 import org.wildfly.clustering.session.ImmutableSession;
@@ -18,9 +17,11 @@ import org.wildfly.clustering.session.ImmutableSessionMetaData;
 import org.wildfly.clustering.session.Session;
 import org.wildfly.clustering.session.SessionManager;
 import org.wildfly.clustering.session.SessionMetaData;
+import org.wildfly.clustering.spring.context.SessionAccessRecorder;
+import org.wildfly.clustering.spring.context.SessionIdentifierChanger;
 
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.Scheduler;
 
 /**
  * A Spring Web session facade for a distributable session.
@@ -33,17 +34,28 @@ public class StartedWebSession implements SpringWebSession, Function<String, Voi
 	private final BlockingReference<Session<Void>> reference;
 	private final AtomicReference<Runnable> closeTask;
 	private final Instant startTime;
+	private final SessionAccessRecorder accessRecorder;
+	private final Scheduler scheduler;
+	private final SessionCloseQueue closeQueue;
+	// Same task for every save, so that redundant closes of this session are merged by the close queue
+	private final Runnable closer = this::closeSync;
 
 	/**
 	 * Creates a distributable Spring Web session.
 	 * @param manager the session manager associated with this session
 	 * @param session the distributable session
 	 * @param closeTask a task to run on session close.
+	 * @param accessRecorder a recorder of session access
+	 * @param scheduler a scheduler for blocking operations
+	 * @param closeQueue a write-behind queue for session close
 	 */
-	public StartedWebSession(SessionManager<Void> manager, Session<Void> session, Runnable closeTask) {
+	public StartedWebSession(SessionManager<Void> manager, Session<Void> session, Runnable closeTask, SessionAccessRecorder accessRecorder, Scheduler scheduler, SessionCloseQueue closeQueue) {
 		this.manager = manager;
 		this.reference = BlockingReference.of(session);
 		this.closeTask = new AtomicReference<>(closeTask);
+		this.accessRecorder = accessRecorder;
+		this.scheduler = scheduler;
+		this.closeQueue = closeQueue;
 		this.startTime = session.isValid() && session.getMetaData().getLastAccessTime().isEmpty() ? session.getMetaData().getCreationTime() : Instant.now();
 	}
 
@@ -74,37 +86,22 @@ public class StartedWebSession implements SpringWebSession, Function<String, Voi
 
 	@Override
 	public Mono<Void> changeSessionId() {
-		Mono<String> identifier = Mono.fromSupplier(this.manager.getIdentifierFactory()).publishOn(Schedulers.boundedElastic());
+		// Changing the session identifier creates a new session, which blocks
+		Mono<String> identifier = Mono.fromSupplier(this.manager.getIdentifierFactory()).publishOn(this.scheduler);
 		return identifier.map(this).doOnError(StartedWebSession::log);
 	}
 
 	@Override
 	public Void apply(String id) {
-		this.reference.getWriter().update(currentSession -> {
-			SessionMetaData currentMetaData = currentSession.getMetaData();
-			Map<String, Object> currentAttributes = currentSession.getAttributes();
-			Session<Void> newSession = this.manager.createSession(id);
-			try {
-				newSession.getAttributes().putAll(currentAttributes);
-				SessionMetaData newMetaData = newSession.getMetaData();
-				currentMetaData.getMaxIdle().ifPresent(newMetaData::setMaxIdle);
-				currentMetaData.getLastAccess().ifPresent(newMetaData::setLastAccess);
-				currentSession.invalidate();
-				return newSession;
-			} catch (RuntimeException | Error e) {
-				newSession.invalidate();
-				throw e;
-			} finally {
-				Consumer.close().accept(newSession.isValid() ? currentSession : newSession);
-			}
-		});
+		this.reference.getWriter().update(new SessionIdentifierChanger(this.manager, id)::apply);
 		return null;
 	}
 
 	@Override
 	public Mono<Void> invalidate() {
+		// Run blocking invalidation on the scheduler, rather than just its completion signal
 		return Mono.<Void>fromRunnable(this::invalidateSync)
-				.publishOn(Schedulers.boundedElastic());
+				.subscribeOn(this.scheduler);
 	}
 
 	private void invalidateSync() {
@@ -125,11 +122,10 @@ public class StartedWebSession implements SpringWebSession, Function<String, Voi
 	@Override
 	public Mono<Void> save() {
 		// N.B. Poor interface design - this method should not be visible to the application
-		// Fire-and-forget close
-		return Mono.<Void>fromRunnable(() -> Mono.fromRunnable(this::closeSync)
-				.doOnError(StartedWebSession::log)
-				.subscribeOn(Schedulers.boundedElastic())
-				.subscribe()).publishOn(Schedulers.boundedElastic());
+		// Write-behind close, unless the close queue is full
+		// Submitting the close does not block, thus requires no additional hand-off
+		// Errors are not suppressed, since these indicate that this session could not be closed
+		return Mono.defer(() -> (this.closeTask.get() != null) ? this.closeQueue.submit(this.getId(), this.closer) : Mono.<Void>empty());
 	}
 
 	void closeSync() {
@@ -139,7 +135,7 @@ public class StartedWebSession implements SpringWebSession, Function<String, Voi
 				this.reference.getReader().read(completeSession -> {
 					try (Session<Void> session = completeSession) {
 						if (session.isValid()) {
-							session.getMetaData().setLastAccess(this.startTime, Instant.now());
+							this.accessRecorder.record(session.getMetaData(), this.startTime, Instant.now());
 						}
 					}
 				});
@@ -8,6 +8,7 @@ package org.wildfly.clustering.spring.web.config;
 import java.lang.annotation.Annotation;
 import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import java.util.function.Predicate;
 
 import jakarta.servlet.ServletContext;
@@ -22,9 +23,13 @@ import org.springframework.web.server.session.WebSessionManager;
 import org.wildfly.clustering.function.Consumer;
 import org.wildfly.clustering.session.ImmutableSession;
 import org.wildfly.clustering.session.SessionManager;
+import org.wildfly.clustering.spring.context.SessionAccessRecorder;
 import org.wildfly.clustering.spring.context.config.AbstractSessionManagementConfiguration;
 import org.wildfly.clustering.spring.web.DistributableWebSessionManager;
 import org.wildfly.clustering.spring.web.DistributableWebSessionManagerConfiguration;
+import org.wildfly.clustering.spring.web.SessionCloseQueue;
+
+import reactor.core.scheduler.Schedulers;
 
 /**
  * A Spring bean that configures and produces a Spring Web session manager.
@@ -35,6 +40,11 @@ public abstract class AbstractWebSessionManagerConfiguration extends AbstractSes
 	private WebSessionIdResolver resolver = new CookieWebSessionIdResolver();
 
 	private ServletContext context;
+	private int blockingThreadCap = Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE;
+	private int blockingQueueCapacity = Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE;
+	private int closeQueueCapacity = Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE;
+	private SessionCloseQueue.OverflowPolicy closeOverflowPolicy = SessionCloseQueue.OverflowPolicy.AWAIT;
+	private boolean sessionSharing = false;
 
 	/**
 	 * Creates a session manager configuration bean.
@@ -52,7 +62,20 @@ public abstract class AbstractWebSessionManagerConfiguration extends AbstractSes
 	@Bean(WebHttpHandlerBuilder.WEB_SESSION_MANAGER_BEAN_NAME)
 	public WebSessionManager webSessionManager(SessionManager<Void> manager) {
 		WebSessionIdResolver resolver = this.resolver;
+		SessionAccessRecorder accessRecorder = new SessionAccessRecorder(this.getAccessTimeGranularity());
+		Optional<Executor> blockingExecutor = this.getBlockingExecutor();
+		String deploymentName = this.getDeploymentName();
+		int blockingThreadCap = this.blockingThreadCap;
+		int blockingQueueCapacity = this.blockingQueueCapacity;
+		int closeQueueCapacity = this.closeQueueCapacity;
+		SessionCloseQueue.OverflowPolicy closeOverflowPolicy = this.closeOverflowPolicy;
+		boolean sessionSharing = this.sessionSharing;
 		DistributableWebSessionManagerConfiguration configuration = new DistributableWebSessionManagerConfiguration() {
+			@Override
+			public String getDeploymentName() {
+				return deploymentName;
+			}
+
 			@Override
 			public SessionManager<Void> getSessionManager() {
 				return manager;
@@ -62,6 +85,41 @@ public abstract class AbstractWebSessionManagerConfiguration extends AbstractSes
 			public WebSessionIdResolver getSessionIdentifierResolver() {
 				return resolver;
 			}
+
+			@Override
+			public SessionAccessRecorder getSessionAccessRecorder() {
+				return accessRecorder;
+			}
+
+			@Override
+			public Optional<Executor> getBlockingExecutor() {
+				return blockingExecutor;
+			}
+
+			@Override
+			public int getBlockingThreadCap() {
+				return blockingThreadCap;
+			}
+
+			@Override
+			public int getBlockingQueueCapacity() {
+				return blockingQueueCapacity;
+			}
+
+			@Override
+			public int getCloseQueueCapacity() {
+				return closeQueueCapacity;
+			}
+
+			@Override
+			public SessionCloseQueue.OverflowPolicy getCloseOverflowPolicy() {
+				return closeOverflowPolicy;
+			}
+
+			@Override
+			public boolean isSessionSharing() {
+				return sessionSharing;
+			}
 		};
 		return new DistributableWebSessionManager(configuration);
 	}
@@ -85,6 +143,51 @@ public abstract class AbstractWebSessionManagerConfiguration extends AbstractSes
 		this.resolver = resolver;
 	}
 
+	/**
+	 * Specifies the maximum number of threads of the thread pool dedicated to blocking session operations.
+	 * Ignored if a blocking executor was configured.
+	 * @param threadCap a maximum number of threads
+	 */
+	public void setBlockingThreadCap(int threadCap) {
+		this.blockingThreadCap = threadCap;
+	}
+
+	/**
+	 * Specifies the maximum number of tasks queued by the thread pool dedicated to blocking session operations.
+	 * Ignored if a blocking executor was configured.
+	 * @param capacity a maximum number of queued tasks
+	 */
+	public void setBlockingQueueCapacity(int capacity) {
+		this.blockingQueueCapacity = capacity;
+	}
+
+	/**
+	 * Specifies the maximum number of sessions with a pending write-behind close.
+	 * @param capacity a maximum number of sessions with a pending close
+	 */
+	public void setCloseQueueCapacity(int capacity) {
+		this.closeQueueCapacity = capacity;
+	}
+
+	/**
+	 * Specifies how to handle session closes once the write-behind close queue is full.
+	 * @param policy a close queue overflow policy
+	 */
+	public void setCloseOverflowPolicy(SessionCloseQueue.OverflowPolicy policy) {
+		this.closeOverflowPolicy = policy;
+	}
+
+	/**
+	 * Specifies whether concurrent requests for the same session on this node should share a single open session, rather than serialize on its lock.
+	 * The shared session is closed, and thus written, once the last of these requests completes.
+	 * Consequently, requests forfeit per-request isolation, i.e. concurrent requests observe each other's modifications to the session, including its invalidation, as described by {@link org.wildfly.clustering.spring.context.SharedSessionRegistry}.
+	 * Disabled by default.
+	 * @param sessionSharing indicates whether concurrent requests should share a session
+	 */
+	public void setSessionSharing(boolean sessionSharing) {
+		this.sessionSharing = sessionSharing;
+	}
+
 	@Override
 	public String getServerName() {
 		return this.context.getVirtualServerName();
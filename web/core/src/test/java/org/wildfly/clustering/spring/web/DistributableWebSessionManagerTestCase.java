@@ -0,0 +1,259 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.clustering.spring.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebSession;
+import org.springframework.web.server.session.WebSessionIdResolver;
+import org.wildfly.clustering.session.Session;
+import org.wildfly.clustering.session.SessionManager;
+import org.wildfly.clustering.session.SessionMetaData;
+import org.wildfly.clustering.spring.context.SessionAccessRecorder;
+
+import reactor.core.Disposable;
+
+/**
+ * Unit test for {@link DistributableWebSessionManager}.
+ * @author Paul Ferraro
+ */
+public class DistributableWebSessionManagerTestCase {
+
+	@Test
+	public void rejectedExecution() throws InterruptedException {
+		DistributableWebSessionManagerConfiguration configuration = mock(DistributableWebSessionManagerConfiguration.class);
+		// Saturated executor
+		Executor executor = task -> {
+			throw new RejectedExecutionException();
+		};
+		doReturn("foo").when(configuration).getDeploymentName();
+		doReturn(mock(SessionManager.class)).when(configuration).getSessionManager();
+		doReturn(mock(WebSessionIdResolver.class)).when(configuration).getSessionIdentifierResolver();
+		doReturn(new SessionAccessRecorder(Duration.ZERO)).when(configuration).getSessionAccessRecorder();
+		doReturn(Optional.of(executor)).when(configuration).getBlockingExecutor();
+		doReturn(16).when(configuration).getCloseQueueCapacity();
+		doReturn(SessionCloseQueue.OverflowPolicy.AWAIT).when(configuration).getCloseOverflowPolicy();
+
+		DistributableWebSessionManager manager = new DistributableWebSessionManager(configuration);
+		try {
+			CountDownLatch latch = new CountDownLatch(1);
+			AtomicReference<String> thread = new AtomicReference<>();
+
+			manager.getCloseQueue().submit("foo", () -> {
+				thread.set(Thread.currentThread().getName());
+				latch.countDown();
+			}).block();
+
+			// Rejected task must neither be discarded, nor run by the submitting thread
+			assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(thread.get()).isEqualTo("foo-session-overflow");
+			assertThat(manager.getRejectedTaskCount()).isEqualTo(1L);
+		} finally {
+			manager.destroy();
+		}
+	}
+
+	@Test
+	public void saturatedOverflow() throws InterruptedException {
+		DistributableWebSessionManagerConfiguration configuration = mock(DistributableWebSessionManagerConfiguration.class);
+		// Saturated executor
+		Executor executor = task -> {
+			throw new RejectedExecutionException();
+		};
+		doReturn("foo").when(configuration).getDeploymentName();
+		doReturn(mock(SessionManager.class)).when(configuration).getSessionManager();
+		doReturn(mock(WebSessionIdResolver.class)).when(configuration).getSessionIdentifierResolver();
+		doReturn(new SessionAccessRecorder(Duration.ZERO)).when(configuration).getSessionAccessRecorder();
+		doReturn(Optional.of(executor)).when(configuration).getBlockingExecutor();
+		// Overflow thread queues at most a single task
+		doReturn(1).when(configuration).getCloseQueueCapacity();
+		doReturn(SessionCloseQueue.OverflowPolicy.AWAIT).when(configuration).getCloseOverflowPolicy();
+
+		DistributableWebSessionManager manager = new DistributableWebSessionManager(configuration);
+		try {
+			CountDownLatch started = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			CountDownLatch queued = new CountDownLatch(1);
+			AtomicReference<String> thread = new AtomicReference<>();
+
+			// Occupies overflow thread
+			manager.getCloseQueue().submit("foo", () -> {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}).block();
+			assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+			// Occupies queue of overflow thread
+			manager.getCloseQueue().submit("bar", queued::countDown).subscribe();
+
+			// Overflow thread is saturated, thus our blocking thread must run the task itself
+			manager.getCloseQueue().submit("baz", () -> thread.set(Thread.currentThread().getName())).block();
+
+			assertThat(thread.get()).isEqualTo(Thread.currentThread().getName());
+			assertThat(manager.getRejectedTaskCount()).isEqualTo(3L);
+
+			release.countDown();
+			// Queued task must not be discarded
+			assertThat(queued.await(10, TimeUnit.SECONDS)).isTrue();
+		} finally {
+			manager.destroy();
+		}
+	}
+
+	@Test
+	public void resumeOnScheduler() throws Exception {
+		DistributableWebSessionManagerConfiguration configuration = mock(DistributableWebSessionManagerConfiguration.class);
+		@SuppressWarnings("unchecked")
+		SessionManager<Void> sessionManager = mock(SessionManager.class);
+		WebSessionIdResolver resolver = mock(WebSessionIdResolver.class);
+		ServerWebExchange exchange = mock(ServerWebExchange.class);
+		@SuppressWarnings("unchecked")
+		Session<Void> session = mock(Session.class);
+		SessionMetaData metaData = mock(SessionMetaData.class);
+		CompletableFuture<Session<Void>> lookup = new CompletableFuture<>();
+
+		doReturn("foo").when(configuration).getDeploymentName();
+		doReturn(sessionManager).when(configuration).getSessionManager();
+		doReturn(resolver).when(configuration).getSessionIdentifierResolver();
+		doReturn(new SessionAccessRecorder(Duration.ZERO)).when(configuration).getSessionAccessRecorder();
+		doReturn(Optional.empty()).when(configuration).getBlockingExecutor();
+		doReturn(1).when(configuration).getBlockingThreadCap();
+		doReturn(16).when(configuration).getBlockingQueueCapacity();
+		doReturn(16).when(configuration).getCloseQueueCapacity();
+		doReturn(SessionCloseQueue.OverflowPolicy.AWAIT).when(configuration).getCloseOverflowPolicy();
+		doReturn(mock(ServerHttpResponse.class)).when(exchange).getResponse();
+		doReturn(List.of("bar")).when(resolver).resolveSessionIds(exchange);
+		doReturn(lookup).when(sessionManager).findSessionAsync("bar");
+		doReturn(true).when(session).isValid();
+		doReturn(metaData).when(session).getMetaData();
+		doReturn(Optional.empty()).when(metaData).getLastAccessTime();
+		doReturn(Instant.now()).when(metaData).getCreationTime();
+
+		DistributableWebSessionManager manager = new DistributableWebSessionManager(configuration);
+		try {
+			CompletableFuture<String> thread = manager.getSession(exchange).map(webSession -> Thread.currentThread().getName()).toFuture();
+
+			// Lookup completes via a non-blocking thread of the cache
+			Thread cacheThread = new Thread(() -> lookup.complete(session), "cache-io");
+			cacheThread.start();
+			cacheThread.join();
+
+			// Handler must resume via the blocking scheduler, rather than via the thread that completed the lookup
+			assertThat(thread.get(10, TimeUnit.SECONDS)).isEqualTo("foo-session-1");
+		} finally {
+			manager.destroy();
+		}
+	}
+
+	@Test
+	public void getSessionStopsAtFirstValidSession() {
+		@SuppressWarnings("unchecked")
+		SessionManager<Void> sessionManager = mock(SessionManager.class);
+		WebSessionIdResolver resolver = mock(WebSessionIdResolver.class);
+		ServerWebExchange exchange = mock(ServerWebExchange.class);
+		@SuppressWarnings("unchecked")
+		Session<Void> invalidSession = mock(Session.class);
+		@SuppressWarnings("unchecked")
+		Session<Void> session = mock(Session.class);
+		SessionMetaData metaData = mock(SessionMetaData.class);
+
+		doReturn(mock(ServerHttpResponse.class)).when(exchange).getResponse();
+		// e.g. duplicate cookies, the first of which references a stale session
+		doReturn(List.of("missing", "invalid", "bar", "baz")).when(resolver).resolveSessionIds(exchange);
+		doReturn(CompletableFuture.completedFuture(null)).when(sessionManager).findSessionAsync("missing");
+		doReturn(CompletableFuture.completedFuture(invalidSession)).when(sessionManager).findSessionAsync("invalid");
+		doReturn(CompletableFuture.completedFuture(session)).when(sessionManager).findSessionAsync("bar");
+		doReturn(false).when(invalidSession).isValid();
+		doReturn("bar").when(session).getId();
+		doReturn(true).when(session).isValid();
+		doReturn(metaData).when(session).getMetaData();
+		doReturn(Optional.of(Instant.now())).when(metaData).getLastAccessTime();
+
+		DistributableWebSessionManager manager = new DistributableWebSessionManager(createConfiguration(sessionManager, resolver));
+		try {
+			WebSession result = manager.getSession(exchange).block(Duration.ofSeconds(10));
+
+			assertThat(result).isNotNull();
+			assertThat(result.getId()).isEqualTo("bar");
+			// Invalid session must be closed
+			verify(invalidSession).close();
+			// Identifiers following the first valid session must not be looked up
+			verify(sessionManager, never()).findSessionAsync("baz");
+			verify(session, never()).close();
+		} finally {
+			manager.destroy();
+		}
+	}
+
+	@Test
+	public void getSessionCancelledBeforePublication() {
+		@SuppressWarnings("unchecked")
+		SessionManager<Void> sessionManager = mock(SessionManager.class);
+		WebSessionIdResolver resolver = mock(WebSessionIdResolver.class);
+		ServerWebExchange exchange = mock(ServerWebExchange.class);
+		@SuppressWarnings("unchecked")
+		Session<Void> session = mock(Session.class);
+		CompletableFuture<Session<Void>> lookup = new CompletableFuture<>();
+		AtomicReference<WebSession> published = new AtomicReference<>();
+
+		doReturn(mock(ServerHttpResponse.class)).when(exchange).getResponse();
+		doReturn(List.of("bar")).when(resolver).resolveSessionIds(exchange);
+		doReturn(lookup).when(sessionManager).findSessionAsync("bar");
+		doReturn(true).when(session).isValid();
+
+		DistributableWebSessionManager manager = new DistributableWebSessionManager(createConfiguration(sessionManager, resolver));
+		try {
+			Disposable subscription = manager.getSession(exchange).subscribe(published::set);
+
+			// e.g. client disconnects while lookup is pending
+			subscription.dispose();
+			lookup.complete(session);
+
+			// Session found by the pending lookup must be closed, thus releasing its lock, but never published
+			verify(session, timeout(10000)).close();
+			assertThat(published.get()).isNull();
+		} finally {
+			manager.destroy();
+		}
+	}
+
+	private static DistributableWebSessionManagerConfiguration createConfiguration(SessionManager<Void> sessionManager, WebSessionIdResolver resolver) {
+		DistributableWebSessionManagerConfiguration configuration = mock(DistributableWebSessionManagerConfiguration.class);
+		doReturn("foo").when(configuration).getDeploymentName();
+		doReturn(sessionManager).when(configuration).getSessionManager();
+		doReturn(resolver).when(configuration).getSessionIdentifierResolver();
+		doReturn(new SessionAccessRecorder(Duration.ZERO)).when(configuration).getSessionAccessRecorder();
+		doReturn(Optional.empty()).when(configuration).getBlockingExecutor();
+		doReturn(2).when(configuration).getBlockingThreadCap();
+		doReturn(16).when(configuration).getBlockingQueueCapacity();
+		doReturn(16).when(configuration).getCloseQueueCapacity();
+		doReturn(SessionCloseQueue.OverflowPolicy.AWAIT).when(configuration).getCloseOverflowPolicy();
+		return configuration;
+	}
+}
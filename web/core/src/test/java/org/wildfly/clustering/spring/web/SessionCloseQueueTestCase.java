@@ -0,0 +1,149 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.clustering.spring.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Unit test for {@link SessionCloseQueue}.
+ * @author Paul Ferraro
+ */
+public class SessionCloseQueueTestCase {
+	// Scheduler of a saturated executor
+	private final Scheduler saturated = Schedulers.fromExecutor(task -> {
+		throw new RejectedExecutionException();
+	});
+
+	@Test
+	public void coalesce() {
+		List<Runnable> drains = new ArrayList<>();
+		SessionCloseQueue queue = new SessionCloseQueue(Schedulers.fromExecutor(drains::add), Schedulers.immediate(), 16, SessionCloseQueue.OverflowPolicy.AWAIT);
+		List<String> closes = new CopyOnWriteArrayList<>();
+		Runnable first = () -> closes.add("first");
+		Runnable third = () -> closes.add("third");
+		Runnable second = () -> {
+			closes.add("second");
+			// Close submitted during drain must merge into that drain
+			queue.submit("foo", third).block();
+		};
+
+		queue.submit("foo", first).block();
+		// Redundant close must be merged
+		queue.submit("foo", first).block();
+		queue.submit("foo", second).block();
+
+		assertThat(drains).hasSize(1);
+		assertThat(queue.getBacklog()).isEqualTo(1);
+		assertThat(closes).isEmpty();
+
+		drains.remove(0).run();
+
+		// Closes must run once each, in submission order, by a single drain
+		assertThat(closes).containsExactly("first", "second", "third");
+		assertThat(drains).isEmpty();
+		assertThat(queue.getBacklog()).isZero();
+		assertThat(queue.getCoalescedCount()).isEqualTo(3L);
+		assertThat(queue.getCloseCount()).isEqualTo(3L);
+
+		// Subsequent close must schedule a new drain
+		queue.submit("foo", first).block();
+
+		assertThat(drains).hasSize(1);
+	}
+
+	@Test
+	public void rejected() {
+		SessionCloseQueue queue = new SessionCloseQueue(this.saturated, Schedulers.immediate(), 16, SessionCloseQueue.OverflowPolicy.AWAIT);
+		List<String> closes = new CopyOnWriteArrayList<>();
+
+		queue.submit("foo", () -> closes.add("foo")).block();
+
+		// Close rejected by the scheduler must not be discarded
+		assertThat(closes).containsExactly("foo");
+		assertThat(queue.getRejectedCount()).isEqualTo(1L);
+		assertThat(queue.getBacklog()).isZero();
+	}
+
+	@Test
+	public void rejectedByFallback() {
+		SessionCloseQueue queue = new SessionCloseQueue(this.saturated, this.saturated, 16, SessionCloseQueue.OverflowPolicy.AWAIT);
+		List<String> closes = new CopyOnWriteArrayList<>();
+
+		queue.submit("foo", () -> closes.add(Thread.currentThread().getName())).block();
+
+		// Close rejected by both schedulers must run via the submitting thread, rather than be discarded
+		assertThat(closes).containsExactly(Thread.currentThread().getName());
+		assertThat(queue.getRejectedCount()).isEqualTo(1L);
+		assertThat(queue.getBacklog()).isZero();
+	}
+
+	@Test
+	public void overflow() {
+		// Full queue with saturated scheduler
+		SessionCloseQueue queue = new SessionCloseQueue(this.saturated, Schedulers.immediate(), 0, SessionCloseQueue.OverflowPolicy.AWAIT);
+		List<String> closes = new CopyOnWriteArrayList<>();
+
+		queue.submit("foo", () -> closes.add("foo")).block();
+
+		assertThat(closes).containsExactly("foo");
+		assertThat(queue.getOverflowCount()).isEqualTo(1L);
+		assertThat(queue.getRejectedCount()).isEqualTo(1L);
+	}
+
+	@Test
+	public void callerRunsFromNonBlockingThread() {
+		ExecutorService executor = Executors.newSingleThreadExecutor(task -> new Thread(task, "blocking"));
+		try {
+			SessionCloseQueue queue = new SessionCloseQueue(Schedulers.fromExecutor(executor), Schedulers.immediate(), 0, SessionCloseQueue.OverflowPolicy.CALLER_RUNS);
+			AtomicReference<String> thread = new AtomicReference<>();
+			Runnable close = () -> thread.set(Thread.currentThread().getName());
+
+			// Close submitted by a blocking thread runs within that thread
+			queue.submit("foo", close).block();
+
+			assertThat(thread.get()).isEqualTo(Thread.currentThread().getName());
+
+			// Close submitted by a non-blocking thread must not run within that thread
+			Mono.defer(() -> queue.submit("foo", close)).subscribeOn(Schedulers.parallel()).block();
+
+			assertThat(thread.get()).isEqualTo("blocking");
+			assertThat(queue.getOverflowCount()).isEqualTo(2L);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void failure() {
+		SessionCloseQueue queue = new SessionCloseQueue(Schedulers.immediate(), Schedulers.immediate(), 16, SessionCloseQueue.OverflowPolicy.AWAIT);
+		List<String> closes = new CopyOnWriteArrayList<>();
+
+		queue.submit("foo", () -> {
+			throw new IllegalStateException();
+		}).block();
+		// Failed close must not prevent subsequent closes
+		queue.submit("foo", () -> closes.add("foo")).block();
+
+		assertThat(closes).containsExactly("foo");
+		assertThat(queue.getFailedCount()).isEqualTo(1L);
+		assertThat(queue.getCloseCount()).isEqualTo(2L);
+		assertThat(queue.getBacklog()).isZero();
+	}
+}